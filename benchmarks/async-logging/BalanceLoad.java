@@ -0,0 +1,106 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// GET /api/cards/{id}/balance в замкнутом цикле; часть клиентов шлет просроченный/поддельный токен.
+// Использование: java BalanceLoad.java <baseUrl> <email> <password> <cardId> [clients] [invalidClients] [seconds]
+public class BalanceLoad {
+
+    // Подпись не совпадает с ключом приложения: каждый запрос проходит путь отказа в JwtTokenProvider
+    private static final String INVALID_TOKEN = "eyJhbGciOiJIUzI1NiJ9.eyJzdWIiOiJ4QHguY29tIn0."
+            + "c2lnbmF0dXJlLXRoYXQtZG9lcy1ub3QtbWF0Y2gtdGhlLWtleQ";
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args[0];
+        long cardId = Long.parseLong(args[3]);
+        int clients = args.length > 4 ? Integer.parseInt(args[4]) : 8;
+        int invalidClients = args.length > 5 ? Integer.parseInt(args[5]) : 8;
+        int seconds = args.length > 6 ? Integer.parseInt(args[6]) : 30;
+
+        HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        String token = login(http, baseUrl, args[1], args[2]);
+
+        AtomicLong ok = new AtomicLong();
+        AtomicLong rejected = new AtomicLong();
+        List<long[]> latencies = new ArrayList<>();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        URI uri = URI.create(baseUrl + "/api/cards/" + cardId + "/balance");
+
+        ExecutorService executor = Executors.newFixedThreadPool(clients + invalidClients);
+        for (int i = 0; i < invalidClients; i++) {
+            HttpRequest request = HttpRequest.newBuilder(uri).header("Authorization", "Bearer " + INVALID_TOKEN).build();
+            executor.execute(() -> {
+                while (System.nanoTime() < deadline) {
+                    try {
+                        http.send(request, HttpResponse.BodyHandlers.discarding());
+                        rejected.incrementAndGet();
+                    } catch (Exception ignored) {
+                    }
+                }
+            });
+        }
+        for (int i = 0; i < clients; i++) {
+            long[] samples = new long[1 << 20];
+            latencies.add(samples);
+            HttpRequest request = HttpRequest.newBuilder(uri).header("Authorization", "Bearer " + token).build();
+            executor.execute(() -> {
+                int count = 0;
+                while (System.nanoTime() < deadline) {
+                    long start = System.nanoTime();
+                    try {
+                        if (http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                            ok.incrementAndGet();
+                        }
+                    } catch (Exception ignored) {
+                    }
+                    if (count < samples.length - 1) {
+                        samples[count++] = System.nanoTime() - start;
+                    }
+                }
+                samples[samples.length - 1] = count;
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(seconds + 60L, TimeUnit.SECONDS);
+
+        long[] all = latencies.stream()
+                .flatMapToLong(samples -> Arrays.stream(samples, 0, (int) samples[samples.length - 1]))
+                .sorted()
+                .toArray();
+        System.out.printf("clients=%d invalid=%d seconds=%d ok=%d rejected=%d rps=%.1f p50=%.2fms p99=%.2fms%n",
+                clients, invalidClients, seconds, ok.get(), rejected.get(), ok.get() / (double) seconds,
+                percentile(all, 0.50), percentile(all, 0.99));
+    }
+
+    private static String login(HttpClient http, String baseUrl, String email, String password) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"email\":\"" + email + "\",\"password\":\"" + password + "\"}"))
+                .build();
+        String body = http.send(request, HttpResponse.BodyHandlers.ofString()).body();
+        Matcher matcher = Pattern.compile("\"token\":\"([^\"]+)\"").matcher(body);
+        if (!matcher.find()) {
+            throw new IllegalStateException("Login failed: " + body);
+        }
+        return matcher.group(1);
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[(int) Math.min(sorted.length - 1, Math.round(quantile * sorted.length))] / 1_000_000.0;
+    }
+}
@@ -0,0 +1,59 @@
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Средняя задержка чтения карты по id (как findById) и по (owner_id, id) на одном соединении.
+// Использование: java -cp postgresql.jar IdLookup.java <jdbcUrl> <user> <password> [lookups]
+public class IdLookup {
+
+    private static final String BY_ID = "SELECT c.*, u.email FROM cards c JOIN users u ON u.id = c.owner_id "
+            + "WHERE c.id = ?";
+    private static final String BY_OWNER_AND_ID = "SELECT c.*, u.email FROM cards c JOIN users u ON u.id = c.owner_id "
+            + "WHERE c.owner_id = ? AND c.id = ?";
+
+    public static void main(String[] args) throws Exception {
+        int lookups = args.length > 3 ? Integer.parseInt(args[3]) : 20000;
+        try (Connection connection = DriverManager.getConnection(args[0], args[1], args[2])) {
+            List<long[]> keys = new ArrayList<>();
+            try (ResultSet rs = connection.createStatement()
+                    .executeQuery("SELECT owner_id, id FROM cards ORDER BY random() LIMIT 10000")) {
+                while (rs.next()) {
+                    keys.add(new long[]{rs.getLong(1), rs.getLong(2)});
+                }
+            }
+            for (int round = 0; round < 2; round++) {
+                // Первый круг — прогрев
+                long byId = run(connection, BY_ID, keys, lookups, false);
+                long byOwner = run(connection, BY_OWNER_AND_ID, keys, lookups, true);
+                if (round == 1) {
+                    System.out.printf("id: %.1f мкс, owner_id + id: %.1f мкс%n",
+                            byId / 1000.0 / lookups, byOwner / 1000.0 / lookups);
+                }
+            }
+        }
+    }
+
+    private static long run(Connection connection, String sql, List<long[]> keys, int lookups, boolean withOwner)
+            throws Exception {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            long start = System.nanoTime();
+            for (int i = 0; i < lookups; i++) {
+                long[] key = keys.get(ThreadLocalRandom.current().nextInt(keys.size()));
+                if (withOwner) {
+                    statement.setLong(1, key[0]);
+                    statement.setLong(2, key[1]);
+                } else {
+                    statement.setLong(1, key[1]);
+                }
+                try (ResultSet rs = statement.executeQuery()) {
+                    rs.next();
+                }
+            }
+            return System.nanoTime() - start;
+        }
+    }
+}
@@ -0,0 +1,8 @@
+-- Запросы CardService.getCurrentUserCards: страница карт владельца и count для Page.
+\set owner random(2, :owners + 1)
+SELECT c.id, c.balance, c.card_number, c.created_at, c.expiry_date, c.owner_id, c.status, c.updated_at
+FROM cards c
+WHERE c.owner_id = :owner
+ORDER BY c.id
+OFFSET 0 ROWS FETCH FIRST 10 ROWS ONLY;
+SELECT count(c.id) FROM cards c WHERE c.owner_id = :owner;
@@ -0,0 +1,15 @@
+#!/usr/bin/env sh
+# Запуск pgbench по запросам владельца. Использование: ./run.sh <database> [owners] [clients] [duration]
+set -e
+
+DB=${1:?database name is required}
+OWNERS=${2:-1000000}
+CLIENTS=${3:-16}
+DURATION=${4:-60}
+DIR=$(dirname "$0")
+
+for script in owner-cards.sql owner-cards-by-status.sql; do
+    echo "== $script on $DB"
+    pgbench -n -M prepared -c "$CLIENTS" -j "$CLIENTS" -T "$DURATION" -D owners="$OWNERS" \
+        --report-per-command -f "$DIR/$script" "$DB"
+done
@@ -0,0 +1,20 @@
+-- Наполнение базы для бенчмарка: :users пользователей и :cards_per_user карт на каждого.
+-- psql -v users=1000000 -v cards_per_user=100 -f seed.sql bankdb
+
+INSERT INTO users (email, password, role, created_at, updated_at)
+SELECT 'bench' || g || '@bank.com', 'bench', 'USER', now(), now()
+FROM generate_series(1, :users) g;
+
+INSERT INTO cards (card_number, owner_id, expiry_date, status, balance, created_at, updated_at)
+SELECT md5(random()::text),
+       u.id,
+       DATE '2030-01-01' + (random() * 1000)::int,
+       CASE WHEN random() < 0.9 THEN 'ACTIVE' ELSE 'BLOCKED' END,
+       round((random() * 10000)::numeric, 2),
+       now(),
+       now()
+FROM users u, generate_series(1, :cards_per_user)
+WHERE u.email LIKE 'bench%';
+
+ANALYZE users;
+ANALYZE cards;
@@ -0,0 +1,71 @@
+import java.io.File;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Время от запуска процесса до первого 200 от /actuator/health. Команда запускается заново на каждый прогон,
+// первый прогон считается прогревом (кеш страниц ОС) и отбрасывается.
+// Использование: java StartupTime.java <runs> <workDir> <command...>
+public class StartupTime {
+
+    private static final URI HEALTH = URI.create("http://localhost:8080/actuator/health");
+
+    public static void main(String[] args) throws Exception {
+        int runs = Integer.parseInt(args[0]);
+        File workDir = new File(args[1]);
+        List<String> command = Arrays.asList(args).subList(2, args.length);
+
+        HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(200)).build();
+        List<Long> samples = new ArrayList<>();
+        for (int run = 0; run <= runs; run++) {
+            long start = System.nanoTime();
+            Process process = new ProcessBuilder(command)
+                    .directory(workDir)
+                    .redirectErrorStream(true)
+                    .redirectOutput(new File(workDir, "startup-" + run + ".log"))
+                    .start();
+            try {
+                waitForHealth(http, process);
+                long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                System.out.printf("run %d: %d ms%s%n", run, millis, run == 0 ? " (прогрев)" : "");
+                if (run > 0) {
+                    samples.add(millis);
+                }
+            } finally {
+                process.destroy();
+                if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                    process.destroyForcibly().waitFor();
+                }
+            }
+        }
+
+        Collections.sort(samples);
+        System.out.printf("min %d ms, median %d ms, max %d ms%n",
+                samples.get(0), samples.get(samples.size() / 2), samples.get(samples.size() - 1));
+    }
+
+    private static void waitForHealth(HttpClient http, Process process) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(HEALTH).timeout(Duration.ofSeconds(1)).build();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(120);
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("Приложение завершилось с кодом " + process.exitValue());
+            }
+            try {
+                if (http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (Exception ignored) {
+            }
+            Thread.sleep(20);
+        }
+        throw new IllegalStateException("Приложение не ответило за 120 с");
+    }
+}
@@ -0,0 +1,101 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Нагрузка на POST /api/cards/transfer в замкнутом цикле.
+// Использование: java TransferLoad.java <baseUrl> <email> <password> <firstCardId> <lastCardId> [clients] [seconds]
+public class TransferLoad {
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args[0];
+        long firstCardId = Long.parseLong(args[3]);
+        long lastCardId = Long.parseLong(args[4]);
+        int clients = args.length > 5 ? Integer.parseInt(args[5]) : 32;
+        int seconds = args.length > 6 ? Integer.parseInt(args[6]) : 30;
+
+        HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        String token = login(http, baseUrl, args[1], args[2]);
+
+        AtomicLong ok = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+        List<long[]> latencies = new ArrayList<>();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        for (int i = 0; i < clients; i++) {
+            long[] samples = new long[1 << 20];
+            latencies.add(samples);
+            executor.execute(() -> {
+                int count = 0;
+                while (System.nanoTime() < deadline) {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    long from = random.nextLong(firstCardId, lastCardId + 1);
+                    long to = random.nextLong(firstCardId, lastCardId);
+                    if (to >= from) {
+                        to++;
+                    }
+                    HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/cards/transfer"))
+                            .header("Authorization", "Bearer " + token)
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString(
+                                    "{\"fromCardId\":" + from + ",\"toCardId\":" + to + ",\"amount\":0.01}"))
+                            .build();
+                    long start = System.nanoTime();
+                    try {
+                        int status = http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                        (status == 200 ? ok : failed).incrementAndGet();
+                    } catch (Exception e) {
+                        failed.incrementAndGet();
+                    }
+                    if (count < samples.length) {
+                        samples[count++] = System.nanoTime() - start;
+                    }
+                }
+                samples[samples.length - 1] = count;
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(seconds + 60L, TimeUnit.SECONDS);
+
+        long[] all = latencies.stream()
+                .flatMapToLong(samples -> Arrays.stream(samples, 0, (int) samples[samples.length - 1]))
+                .sorted()
+                .toArray();
+        System.out.printf("clients=%d seconds=%d ok=%d failed=%d tps=%.1f p50=%.2fms p99=%.2fms%n",
+                clients, seconds, ok.get(), failed.get(), ok.get() / (double) seconds,
+                percentile(all, 0.50), percentile(all, 0.99));
+    }
+
+    private static String login(HttpClient http, String baseUrl, String email, String password) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"email\":\"" + email + "\",\"password\":\"" + password + "\"}"))
+                .build();
+        String body = http.send(request, HttpResponse.BodyHandlers.ofString()).body();
+        Matcher matcher = Pattern.compile("\"token\":\"([^\"]+)\"").matcher(body);
+        if (!matcher.find()) {
+            throw new IllegalStateException("Login failed: " + body);
+        }
+        return matcher.group(1);
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[(int) Math.min(sorted.length - 1, Math.round(quantile * sorted.length))] / 1_000_000.0;
+    }
+}
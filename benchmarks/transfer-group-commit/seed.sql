@@ -0,0 +1,9 @@
+-- Карты для нагрузочного теста переводов. Использование:
+-- psql -v owner_id=42 -v cards=100 -f seed.sql bankdb
+INSERT INTO cards (card_number, owner_id, expiry_date, status, balance)
+SELECT 'bench-' || n, :owner_id, DATE '2030-12-31', 'ACTIVE', 1000000.00
+FROM generate_series(1, :cards) AS n;
+
+SELECT min(id) AS first_card_id, max(id) AS last_card_id
+FROM cards
+WHERE owner_id = :owner_id AND card_number LIKE 'bench-%';
@@ -0,0 +1,16 @@
+#!/bin/sh
+# Training run for the AppCDS archive, from the directory written by extract.sh. The context is refreshed
+# with the prod profile and the JVM exits right after, dumping every class loaded so far into app.jsa.
+# No database is needed: the schema is not validated and Hibernate does not read JDBC metadata.
+# The archive is only valid for the same JVM build and the same jars, so it is created in the runtime image.
+set -e
+
+cd "${1:-.}"
+java -XX:ArchiveClassesAtExit=app.jsa -Xlog:cds=off -Xlog:cds+dynamic=off \
+    -Dspring.aot.enabled=true -Dspring.context.exit=onRefresh \
+    @classpath.args com.example.bankcards.BankCardsApplication \
+    --spring.profiles.active=prod \
+    --spring.jpa.properties.hibernate.temp.use_jdbc_metadata_defaults=false \
+    --spring.datasource.url=jdbc:postgresql://localhost:1/cds-training \
+    > cds-training.log 2>&1 || { cat cds-training.log; exit 1; }
+rm cds-training.log
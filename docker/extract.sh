@@ -0,0 +1,23 @@
+#!/bin/sh
+# Unpacks the Spring Boot jar into <dest>/lib (dependencies), <dest>/app.jar (application classes) and
+# <dest>/classpath.args (the launch class path, in BOOT-INF/classpath.idx order). The application then runs
+# from plain jars on -cp instead of the nested-jar launcher, because AppCDS only archives classes that the
+# JVM loads from jar files on the class path.
+# usage: extract.sh <boot-jar> <dest>
+set -e
+
+jar=$(cd "$(dirname "$1")" && pwd)/$(basename "$1")
+dest=$2
+rm -rf "$dest"
+mkdir -p "$dest/boot"
+(cd "$dest/boot" && jar --extract --file "$jar")
+
+mv "$dest/boot/BOOT-INF/lib" "$dest/lib"
+jar --create --file "$dest/app.jar" -C "$dest/boot/BOOT-INF/classes" .
+{
+    printf -- '-cp app.jar'
+    sed -n 's#^- "BOOT-INF/lib/\(.*\)"$#:lib/\1#p' "$dest/boot/BOOT-INF/classpath.idx" | tr -d '\n'
+    printf '\n'
+} > "$dest/classpath.args"
+
+rm -rf "$dest/boot"
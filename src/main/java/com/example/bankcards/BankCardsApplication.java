@@ -3,10 +3,16 @@ package com.example.bankcards;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 
+import java.util.Arrays;
+
 @SpringBootApplication
 public class BankCardsApplication {
 
     public static void main(String[] args) {
+        if (args.length > 0 && DatabaseMigration.COMMAND.equals(args[0])) {
+            DatabaseMigration.run(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
         SpringApplication.run(BankCardsApplication.class, args);
     }
 }
@@ -0,0 +1,51 @@
+package com.example.bankcards;
+
+import com.example.bankcards.config.SchemaVersionVerifier;
+import org.springframework.aot.AotDetector;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceTransactionManagerAutoConfiguration;
+import org.springframework.boot.autoconfigure.liquibase.LiquibaseAutoConfiguration;
+import org.springframework.boot.autoconfigure.transaction.TransactionAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.SpringProperties;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Arrays;
+
+// Applies the Liquibase changelog and exits: BankCardsApplication migrate [--property=value...]. Run once per
+// rollout (Compose service, Kubernetes init container or job) instead of in every instance. The context holds
+// only the datasource, a JDBC transaction manager and Liquibase: no web server, Hibernate or schedulers. Tags
+// the changelog table for SchemaVersionVerifier
+@ImportAutoConfiguration({DataSourceAutoConfiguration.class, JdbcTemplateAutoConfiguration.class,
+        DataSourceTransactionManagerAutoConfiguration.class, TransactionAutoConfiguration.class,
+        LiquibaseAutoConfiguration.class})
+class DatabaseMigration {
+
+    static final String COMMAND = "migrate";
+
+    static void run(String[] args) {
+        // The AOT initializer describes the full application context, and the prod profile it was built
+        // with has Liquibase disabled
+        SpringProperties.setProperty(AotDetector.AOT_ENABLED, "false");
+
+        String[] migrateArgs = Arrays.copyOf(args, args.length + 1);
+        migrateArgs[args.length] = "--spring.liquibase.enabled=true";
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(DatabaseMigration.class)
+                .web(WebApplicationType.NONE)
+                .run(migrateArgs)) {
+            Environment environment = context.getEnvironment();
+            SchemaVersionVerifier.tagMigratedSchema(context.getBean(JdbcTemplate.class),
+                    context.getBean(TransactionTemplate.class),
+                    environment.getProperty(SchemaVersionVerifier.CHANGE_LOG_PROPERTY,
+                            SchemaVersionVerifier.DEFAULT_CHANGE_LOG),
+                    environment.getProperty(SchemaVersionVerifier.CHANGE_LOG_TABLE_PROPERTY,
+                            SchemaVersionVerifier.DEFAULT_CHANGE_LOG_TABLE));
+        }
+    }
+}
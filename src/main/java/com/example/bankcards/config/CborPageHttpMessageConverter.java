@@ -0,0 +1,28 @@
+package com.example.bankcards.config;
+
+import com.example.bankcards.dto.response.PageResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.data.domain.Page;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+public class CborPageHttpMessageConverter extends MappingJackson2CborHttpMessageConverter {
+
+    public CborPageHttpMessageConverter(ObjectMapper objectMapper) {
+        super(objectMapper);
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        if (object instanceof Page<?> page) {
+            super.writeInternal(PageResponse.fromPage(page), PageResponse.class, outputMessage);
+            return;
+        }
+        super.writeInternal(object, type, outputMessage);
+    }
+}
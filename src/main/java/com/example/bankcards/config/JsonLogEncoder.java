@@ -0,0 +1,77 @@
+package com.example.bankcards.config;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.IThrowableProxy;
+import ch.qos.logback.classic.spi.ThrowableProxyUtil;
+import ch.qos.logback.core.encoder.EncoderBase;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Map;
+
+// One JSON object per line with the formatted message; logback's own JsonEncoder writes the raw
+// "{}" template plus the argument array and the whole logger context on every event
+public class JsonLogEncoder extends EncoderBase<ILoggingEvent> {
+
+    private static final byte[] EMPTY = new byte[0];
+
+    @Override
+    public byte[] headerBytes() {
+        return EMPTY;
+    }
+
+    @Override
+    public byte[] encode(ILoggingEvent event) {
+        StringBuilder json = new StringBuilder(256);
+        json.append("{\"@timestamp\":\"").append(Instant.ofEpochMilli(event.getTimeStamp())).append('"');
+        field(json, "level", event.getLevel().toString());
+        field(json, "thread", event.getThreadName());
+        field(json, "logger", event.getLoggerName());
+        field(json, "message", event.getFormattedMessage());
+        Map<String, String> mdc = event.getMDCPropertyMap();
+        if (mdc != null) {
+            mdc.forEach((key, value) -> field(json, key, value));
+        }
+        IThrowableProxy throwable = event.getThrowableProxy();
+        if (throwable != null) {
+            field(json, "exception", ThrowableProxyUtil.asString(throwable));
+        }
+        json.append("}\n");
+        return json.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public byte[] footerBytes() {
+        return EMPTY;
+    }
+
+    private static void field(StringBuilder json, String name, String value) {
+        json.append(",\"");
+        escape(json, name);
+        json.append("\":\"");
+        if (value != null) {
+            escape(json, value);
+        }
+        json.append('"');
+    }
+
+    static void escape(StringBuilder json, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> json.append("\\\"");
+                case '\\' -> json.append("\\\\");
+                case '\n' -> json.append("\\n");
+                case '\r' -> json.append("\\r");
+                case '\t' -> json.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.bankcards.config;
+
+import com.example.bankcards.security.DatabaseTimeTracker;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class LoadSheddingConfig {
+
+    // Installed before the pool starts; Spring Boot then leaves the tracker alone instead of binding its own
+    @Bean
+    public static BeanPostProcessor databaseTimeTracker(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource dataSource
+                        && dataSource.getMetricsTrackerFactory() == null && dataSource.getMetricRegistry() == null) {
+                    dataSource.setMetricsTrackerFactory(new DatabaseTimeTracker(meterRegistry));
+                }
+                return bean;
+            }
+        };
+    }
+}
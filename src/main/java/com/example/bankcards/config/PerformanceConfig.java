@@ -0,0 +1,38 @@
+package com.example.bankcards.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+
+@Configuration
+@Profile("performance")
+@Slf4j
+public class PerformanceConfig {
+
+    @Bean
+    public static BeanPostProcessor hikariPoolSizer(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource dataSource
+                        && !environment.containsProperty("spring.datasource.hikari.maximum-pool-size")) {
+                    int poolSize = calculatePoolSize(
+                            Runtime.getRuntime().availableProcessors(),
+                            environment.getProperty("performance.hikari.connections-per-core", Integer.class, 2),
+                            environment.getProperty("performance.hikari.spindle-count", Integer.class, 1));
+                    dataSource.setMaximumPoolSize(poolSize);
+                    log.info("Hikari maximum pool size set to {}", poolSize);
+                }
+                return bean;
+            }
+        };
+    }
+
+    static int calculatePoolSize(int cores, int connectionsPerCore, int spindleCount) {
+        return Math.max(1, cores * connectionsPerCore + spindleCount);
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.bankcards.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PerformanceSettingsValidator {
+
+    private static final Set<String> VERBOSE_LOG_LEVELS = Set.of("DEBUG", "TRACE", "ALL");
+
+    private final Environment environment;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void validate() {
+        findSlowSettings().forEach(warning -> log.warn("Slow setting active: {}", warning));
+    }
+
+    List<String> findSlowSettings() {
+        List<String> warnings = new ArrayList<>();
+
+        if (environment.getProperty("spring.jpa.open-in-view", Boolean.class, true)) {
+            warnings.add("spring.jpa.open-in-view is enabled, JDBC connections are held until the response is written");
+        }
+        if (environment.getProperty("spring.jpa.show-sql", Boolean.class, false)) {
+            warnings.add("spring.jpa.show-sql is enabled");
+        }
+        if (environment.getProperty("spring.jpa.properties.hibernate.format_sql", Boolean.class, false)) {
+            warnings.add("hibernate.format_sql is enabled");
+        }
+        if (environment.getProperty("spring.jpa.properties.hibernate.generate_statistics", Boolean.class, false)) {
+            warnings.add("hibernate.generate_statistics is enabled");
+        }
+        if (environment.getProperty("spring.jpa.properties.hibernate.jdbc.batch_size", Integer.class, 1) <= 1) {
+            warnings.add("hibernate.jdbc.batch_size is not set, inserts and updates are not batched");
+        }
+        if (isVerbose("logging.level.com.example.bankcards")) {
+            warnings.add("logging.level.com.example.bankcards is " + environment.getProperty("logging.level.com.example.bankcards"));
+        }
+        if (isVerbose("logging.level.org.hibernate.SQL")) {
+            warnings.add("logging.level.org.hibernate.SQL is " + environment.getProperty("logging.level.org.hibernate.SQL"));
+        }
+
+        return warnings;
+    }
+
+    private boolean isVerbose(String property) {
+        String level = environment.getProperty(property);
+        return level != null && VERBOSE_LOG_LEVELS.contains(level.toUpperCase());
+    }
+}
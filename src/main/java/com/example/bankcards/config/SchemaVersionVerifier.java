@@ -0,0 +1,162 @@
+package com.example.bankcards.config;
+
+import liquibase.change.CheckSum;
+import liquibase.changelog.ChangeLogParameters;
+import liquibase.changelog.ChangeSet;
+import liquibase.changelog.DatabaseChangeLog;
+import liquibase.parser.ChangeLogParserFactory;
+import liquibase.resource.ClassLoaderResourceAccessor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Stands in for Liquibase and ddl-auto=validate when migrations run out of band (BankCardsApplication migrate):
+// no DATABASECHANGELOGLOCK and no schema introspection. The migrate command tags the changelog table with a
+// digest of the changelog files, so an instance built from the same changelog only looks the tag up. Without
+// the tag (schema migrated by plain Liquibase, or changelog ahead of the database) every changeset and its
+// checksum is compared, which costs a Liquibase parse. Runs before the ready listeners, which query
+// application tables
+@Component
+@ConditionalOnProperty(name = "schema.verify-changelog", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class SchemaVersionVerifier {
+
+    public static final String CHANGE_LOG_PROPERTY = "spring.liquibase.change-log";
+    public static final String CHANGE_LOG_TABLE_PROPERTY = "spring.liquibase.database-change-log-table";
+    public static final String DEFAULT_CHANGE_LOG = "classpath:/db/changelog/db.changelog-master.yaml";
+    public static final String DEFAULT_CHANGE_LOG_TABLE = "DATABASECHANGELOG";
+
+    private static final String TAG_PREFIX = "sha256:";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${" + CHANGE_LOG_PROPERTY + ":" + DEFAULT_CHANGE_LOG + "}")
+    private String changeLog;
+
+    @Value("${" + CHANGE_LOG_TABLE_PROPERTY + ":" + DEFAULT_CHANGE_LOG_TABLE + "}")
+    private String changeLogTable;
+
+    record AppliedChangeSet(String id, String author, String filename, String checksum) {
+    }
+
+    @EventListener(ApplicationStartedEvent.class)
+    public void verify() {
+        long start = System.nanoTime();
+        Integer tagged = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM " + changeLogTable + " WHERE tag = ?", Integer.class, changeLogTag(changeLog));
+        if (tagged != null && tagged > 0) {
+            log.info("Schema is tagged with the changelog digest, verified in {} ms",
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            return;
+        }
+
+        List<ChangeSet> expected = parseChangeLog();
+        List<AppliedChangeSet> applied = jdbcTemplate.query(
+                "SELECT id, author, filename, md5sum FROM " + changeLogTable,
+                (rs, rowNum) -> new AppliedChangeSet(
+                        rs.getString("id"), rs.getString("author"), rs.getString("filename"), rs.getString("md5sum")));
+
+        List<String> problems = findMismatches(expected, applied);
+        if (!problems.isEmpty()) {
+            throw new IllegalStateException("Database schema does not match the changelog, run the migrate command: "
+                    + String.join("; ", problems));
+        }
+        log.info("Schema matches {} changesets, verified in {} ms",
+                expected.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    // Called by the migrate command after Liquibase has applied the changelog. The tag goes on the newest row,
+    // so instances of the previous release still find theirs on an earlier row during a rollout. The update
+    // commits in its own transaction, so it survives a pool configured with auto-commit=false
+    public static void tagMigratedSchema(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                                         String changeLog, String changeLogTable) {
+        String tag = changeLogTag(changeLog);
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update(
+                "UPDATE " + changeLogTable + " SET tag = ? WHERE orderexecuted = "
+                        + "(SELECT max(orderexecuted) FROM " + changeLogTable + ")", tag));
+    }
+
+    // Rows without a changeset in the changelog are fine: during a rolling deploy the database is already
+    // migrated for the new version while old instances keep starting
+    static List<String> findMismatches(List<ChangeSet> expected, List<AppliedChangeSet> applied) {
+        Map<String, AppliedChangeSet> appliedByKey = new HashMap<>();
+        for (AppliedChangeSet row : applied) {
+            appliedByKey.put(key(row.id(), row.author(), row.filename()), row);
+        }
+
+        List<String> problems = new ArrayList<>();
+        for (ChangeSet changeSet : expected) {
+            AppliedChangeSet row = appliedByKey.get(
+                    key(changeSet.getId(), changeSet.getAuthor(), changeSet.getStoredFilePath()));
+            if (row == null) {
+                problems.add(changeSet.getId() + " is not applied");
+            } else if (row.checksum() != null && !changeSet.isCheckSumValid(CheckSum.parse(row.checksum()))) {
+                problems.add(changeSet.getId() + " was changed after it was applied");
+            }
+        }
+        return problems;
+    }
+
+    // SHA-256 over the names and contents of the files next to the master changelog
+    static String changeLogTag(String changeLog) {
+        String path = classpathPath(changeLog);
+        String directory = path.substring(0, path.lastIndexOf('/') + 1);
+        try {
+            Resource[] resources = new PathMatchingResourcePatternResolver()
+                    .getResources("classpath:" + directory + "*");
+            Arrays.sort(resources, Comparator.comparing(Resource::getFilename));
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (Resource resource : resources) {
+                digest.update(resource.getFilename().getBytes(StandardCharsets.UTF_8));
+                try (InputStream in = resource.getInputStream()) {
+                    digest.update(in.readAllBytes());
+                }
+            }
+            return TAG_PREFIX + HexFormat.of().formatHex(digest.digest());
+        } catch (IOException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Cannot read changelog " + changeLog, e);
+        }
+    }
+
+    List<ChangeSet> parseChangeLog() {
+        String path = classpathPath(changeLog);
+        try (ClassLoaderResourceAccessor accessor = new ClassLoaderResourceAccessor(getClass().getClassLoader())) {
+            return ChangeLogParserFactory.getInstance().getParser(path, accessor)
+                    .parse(path, new ChangeLogParameters(), accessor)
+                    .getChangeSets();
+        } catch (Exception e) {
+            throw new IllegalStateException("Cannot read changelog " + changeLog, e);
+        }
+    }
+
+    private static String classpathPath(String location) {
+        return location.replaceFirst("^classpath:/?", "");
+    }
+
+    private static String key(String id, String author, String filename) {
+        return id + "::" + author + "::" + DatabaseChangeLog.normalizePath(filename);
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.bankcards.config;
+
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+@Configuration
+public class WebConfig {
+
+    @Bean
+    public CborPageHttpMessageConverter cborPageHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new CborPageHttpMessageConverter(builder
+                .factory(new CBORFactory())
+                .featuresToEnable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build());
+    }
+}
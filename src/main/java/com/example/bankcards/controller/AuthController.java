@@ -1,13 +1,16 @@
 package com.example.bankcards.controller;
 
 import com.example.bankcards.dto.request.LoginRequest;
+import com.example.bankcards.dto.request.RefreshTokenRequest;
 import com.example.bankcards.dto.request.RegisterRequest;
 import com.example.bankcards.dto.response.AuthResponse;
+import com.example.bankcards.dto.response.MessageResponse;
 import com.example.bankcards.service.AuthService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -18,6 +21,8 @@ import org.springframework.web.bind.annotation.*;
 @Tag(name = "Authentication", description = "Authentication endpoints")
 public class AuthController {
 
+    private static final String BEARER_PREFIX = "Bearer ";
+
     private final AuthService authService;
 
     @PostMapping("/register")
@@ -33,4 +38,23 @@ public class AuthController {
         AuthResponse response = authService.login(request);
         return ResponseEntity.ok(response);
     }
+
+    @PostMapping("/refresh")
+    @Operation(summary = "Exchange a refresh token for a new JWT and refresh token")
+    public ResponseEntity<AuthResponse> refresh(@Valid @RequestBody RefreshTokenRequest request) {
+        AuthResponse response = authService.refresh(request);
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/logout")
+    @Operation(summary = "Revoke the JWT token used in the request and, if given, its refresh token")
+    public ResponseEntity<MessageResponse> logout(
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+            @RequestBody(required = false) RefreshTokenRequest request) {
+        String token = authorization != null && authorization.startsWith(BEARER_PREFIX)
+                ? authorization.substring(BEARER_PREFIX.length())
+                : null;
+        authService.logout(token, request == null ? null : request.getRefreshToken());
+        return ResponseEntity.ok(new MessageResponse("Logged out successfully"));
+    }
 }
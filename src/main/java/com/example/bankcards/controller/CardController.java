@@ -1,13 +1,16 @@
 package com.example.bankcards.controller;
 
+import com.example.bankcards.dto.request.BatchTransferRequest;
 import com.example.bankcards.dto.request.CreateCardRequest;
 import com.example.bankcards.dto.request.TransferRequest;
-import com.example.bankcards.dto.response.BalanceResponse;
-import com.example.bankcards.dto.response.CardResponse;
-import com.example.bankcards.dto.response.MessageResponse;
-import com.example.bankcards.dto.response.TransferResponse;
+import com.example.bankcards.dto.response.*;
 import com.example.bankcards.entity.CardStatus;
+import com.example.bankcards.service.CardAnalyticsService;
+import com.example.bankcards.service.CardExpiryService;
+import com.example.bankcards.service.CardLanes;
 import com.example.bankcards.service.CardService;
+import com.example.bankcards.service.TransferBatcher;
+import com.example.bankcards.service.TransferQueueService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -16,10 +19,15 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/cards")
@@ -28,7 +36,14 @@ import org.springframework.web.bind.annotation.*;
 @SecurityRequirement(name = "bearerAuth")
 public class CardController {
 
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
     private final CardService cardService;
+    private final TransferQueueService transferQueueService;
+    private final CardLanes cardLanes;
+    private final TransferBatcher transferBatcher;
+    private final CardAnalyticsService cardAnalyticsService;
+    private final CardExpiryService cardExpiryService;
 
     @GetMapping
     @Operation(summary = "Get current user's cards with pagination and optional status filter")
@@ -47,10 +62,43 @@ public class CardController {
         return ResponseEntity.ok(cardService.getAllCards(status, pageable));
     }
 
+    @GetMapping("/summary")
+    @Operation(summary = "Get card count and total balance of current user's cards by status")
+    public ResponseEntity<BalanceSummaryResponse> getCurrentUserSummary() {
+        return ResponseEntity.ok(cardService.getCurrentUserSummary());
+    }
+
+    @GetMapping("/all/summary")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Get card count and total balance of all cards by status (Admin only)")
+    public ResponseEntity<BalanceSummaryResponse> getGlobalSummary() {
+        return ResponseEntity.ok(cardService.getGlobalSummary());
+    }
+
+    @GetMapping("/expiring")
+    @Operation(summary = "Get current user's cards expiring soon")
+    public ResponseEntity<List<CardExpiryNoticeResponse>> getExpiringCards() {
+        return ResponseEntity.ok(cardExpiryService.getCurrentUserNotices());
+    }
+
+    @GetMapping("/all/analytics")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Get aggregated card analytics computed over a consistent snapshot (Admin only)")
+    public ResponseEntity<CardAnalyticsResponse> getAnalytics() {
+        return ResponseEntity.ok(cardAnalyticsService.getAnalytics());
+    }
+
     @GetMapping("/{id}")
-    @Operation(summary = "Get card by ID")
-    public ResponseEntity<CardResponse> getCardById(@PathVariable Long id) {
-        return ResponseEntity.ok(cardService.getCardById(id));
+    @Operation(summary = "Get card by ID, supports If-None-Match")
+    public ResponseEntity<CardResponse> getCardById(@PathVariable Long id, WebRequest webRequest) {
+        String eTag = eTag("card", id, cardService.getCardVersion(id));
+        if (webRequest.checkNotModified(eTag)) {
+            return notModified(eTag);
+        }
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .cacheControl(REVALIDATE)
+                .body(cardService.getCardById(id));
     }
 
     @PostMapping
@@ -92,12 +140,58 @@ public class CardController {
     @PostMapping("/transfer")
     @Operation(summary = "Transfer money between own cards")
     public ResponseEntity<TransferResponse> transfer(@Valid @RequestBody TransferRequest request) {
-        return ResponseEntity.ok(cardService.transfer(request));
+        if (transferBatcher.isEnabled()) {
+            return ResponseEntity.ok(transferBatcher.transfer(request));
+        }
+        return ResponseEntity.ok(cardLanes.execute(request.getFromCardId(), request.getToCardId(),
+                () -> cardService.transfer(request)));
+    }
+
+    @PostMapping(value = "/transfer", params = "async=true")
+    @Operation(summary = "Queue a transfer between own cards for asynchronous processing")
+    public ResponseEntity<PendingTransferResponse> transferAsync(@Valid @RequestBody TransferRequest request) {
+        PendingTransferResponse response = transferQueueService.submit(request);
+        return ResponseEntity.accepted()
+                .location(ServletUriComponentsBuilder.fromCurrentContextPath()
+                        .path("/api/cards/transfers/{id}")
+                        .buildAndExpand(response.getId())
+                        .toUri())
+                .body(response);
+    }
+
+    @GetMapping("/transfers/{id}")
+    @Operation(summary = "Get status of an asynchronous transfer")
+    public ResponseEntity<PendingTransferResponse> getTransferStatus(@PathVariable Long id) {
+        return ResponseEntity.ok(transferQueueService.getStatus(id));
+    }
+
+    @PostMapping("/transfers/batch")
+    @Operation(summary = "Execute several transfers between own cards in one transaction")
+    public ResponseEntity<BatchTransferResponse> batchTransfer(@Valid @RequestBody BatchTransferRequest request) {
+        return ResponseEntity.ok(cardService.batchTransfer(request));
     }
 
     @GetMapping("/{id}/balance")
-    @Operation(summary = "Get card balance")
-    public ResponseEntity<BalanceResponse> getBalance(@PathVariable Long id) {
-        return ResponseEntity.ok(cardService.getBalance(id));
+    @Operation(summary = "Get card balance, supports If-None-Match")
+    public ResponseEntity<BalanceResponse> getBalance(@PathVariable Long id, WebRequest webRequest) {
+        String eTag = eTag("balance", id, cardService.getCardVersion(id));
+        if (webRequest.checkNotModified(eTag)) {
+            return notModified(eTag);
+        }
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .cacheControl(REVALIDATE)
+                .body(cardService.getBalance(id));
+    }
+
+    private static String eTag(String resource, Long id, long version) {
+        return "\"" + resource + "-" + id + "-" + version + "\"";
+    }
+
+    private static <T> ResponseEntity<T> notModified(String eTag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(eTag)
+                .cacheControl(REVALIDATE)
+                .build();
     }
 }
@@ -0,0 +1,31 @@
+package com.example.bankcards.controller;
+
+import com.example.bankcards.service.JwtKeyService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequiredArgsConstructor
+@Tag(name = "Authentication", description = "Authentication endpoints")
+public class JwksController {
+
+    private final JwtKeyService jwtKeyService;
+
+    // Successor keys are listed before they sign, so verifiers caching this for a few minutes never miss one
+    @GetMapping("/.well-known/jwks.json")
+    @Operation(summary = "Public keys for verifying access tokens")
+    public ResponseEntity<Map<String, List<Map<String, Object>>>> jwks() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(Duration.ofMinutes(5)).cachePublic())
+                .body(Map.of("keys", jwtKeyService.jwks()));
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.bankcards.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchTransferRequest {
+
+    @NotNull(message = "Mode is required")
+    private BatchTransferMode mode = BatchTransferMode.ALL_OR_NOTHING;
+
+    @NotEmpty(message = "At least one transfer is required")
+    @Size(max = 1000, message = "A batch can contain at most 1000 transfers")
+    private List<@Valid @NotNull TransferRequest> transfers;
+}
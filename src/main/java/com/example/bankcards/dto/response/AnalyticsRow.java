@@ -0,0 +1,23 @@
+package com.example.bankcards.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class AnalyticsRow {
+
+    private String key;
+    private BigDecimal bucket;
+    private Long ownerCount;
+    private long cardCount;
+    private BigDecimal totalBalance;
+}
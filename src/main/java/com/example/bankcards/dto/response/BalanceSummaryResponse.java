@@ -0,0 +1,20 @@
+package com.example.bankcards.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BalanceSummaryResponse {
+
+    private long cardCount;
+    private BigDecimal totalBalance;
+    private List<StatusBalanceSummary> byStatus;
+}
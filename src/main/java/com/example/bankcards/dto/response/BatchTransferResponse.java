@@ -0,0 +1,22 @@
+package com.example.bankcards.dto.response;
+
+import com.example.bankcards.dto.request.BatchTransferMode;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchTransferResponse {
+
+    private BatchTransferMode mode;
+    private boolean committed;
+    private int completed;
+    private int failed;
+    private List<TransferLegResult> results;
+}
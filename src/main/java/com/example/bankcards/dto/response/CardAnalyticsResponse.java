@@ -0,0 +1,22 @@
+package com.example.bankcards.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CardAnalyticsResponse {
+
+    private LocalDateTime generatedAt;
+    private boolean complete;
+    private List<String> timedOut;
+    private Map<String, List<AnalyticsRow>> aggregates;
+}
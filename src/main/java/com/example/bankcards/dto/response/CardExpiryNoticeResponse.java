@@ -0,0 +1,29 @@
+package com.example.bankcards.dto.response;
+
+import com.example.bankcards.entity.CardExpiryNotice;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CardExpiryNoticeResponse {
+
+    private Long cardId;
+    private LocalDate expiryDate;
+    private LocalDateTime notifiedAt;
+
+    public static CardExpiryNoticeResponse fromEntity(CardExpiryNotice notice) {
+        return CardExpiryNoticeResponse.builder()
+                .cardId(notice.getCardId())
+                .expiryDate(notice.getExpiryDate())
+                .notifiedAt(notice.getCreatedAt())
+                .build();
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.bankcards.dto.response;
+
+import com.example.bankcards.entity.PendingTransfer;
+import com.example.bankcards.entity.PendingTransferStatus;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PendingTransferResponse {
+
+    private Long id;
+    private PendingTransferStatus status;
+    private String error;
+    private Long fromCardId;
+    private Long toCardId;
+    private BigDecimal amount;
+    private LocalDateTime createdAt;
+    private LocalDateTime processedAt;
+
+    public static PendingTransferResponse fromEntity(PendingTransfer transfer) {
+        return PendingTransferResponse.builder()
+                .id(transfer.getId())
+                .status(transfer.getStatus())
+                .error(transfer.getError())
+                .fromCardId(transfer.getFromCardId())
+                .toCardId(transfer.getToCardId())
+                .amount(transfer.getAmount())
+                .createdAt(transfer.getCreatedAt())
+                .processedAt(transfer.getProcessedAt())
+                .build();
+    }
+}
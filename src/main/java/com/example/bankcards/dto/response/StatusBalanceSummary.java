@@ -0,0 +1,29 @@
+package com.example.bankcards.dto.response;
+
+import com.example.bankcards.entity.CardBalanceSummary;
+import com.example.bankcards.entity.CardStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StatusBalanceSummary {
+
+    private CardStatus status;
+    private long cardCount;
+    private BigDecimal totalBalance;
+
+    public static StatusBalanceSummary fromEntity(CardBalanceSummary summary) {
+        return StatusBalanceSummary.builder()
+                .status(summary.getId().getStatus())
+                .cardCount(summary.getCardCount())
+                .totalBalance(summary.getTotalBalance())
+                .build();
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.bankcards.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TransferLegResult {
+
+    private int index;
+    private TransferLegStatus status;
+    private String error;
+    private Long fromCardId;
+    private Long toCardId;
+    private BigDecimal amount;
+    private BigDecimal fromCardNewBalance;
+    private BigDecimal toCardNewBalance;
+}
@@ -0,0 +1,7 @@
+package com.example.bankcards.dto.response;
+
+public enum TransferLegStatus {
+    COMPLETED,
+    FAILED,
+    NOT_APPLIED
+}
@@ -48,6 +48,10 @@ public class Card {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     public boolean isExpired() {
         return LocalDate.now().isAfter(expiryDate);
     }
@@ -0,0 +1,25 @@
+package com.example.bankcards.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+
+@Entity
+@Table(name = "card_balance_summary")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CardBalanceSummary {
+
+    @EmbeddedId
+    private CardBalanceSummaryId id;
+
+    @Column(name = "card_count", nullable = false)
+    private long cardCount;
+
+    @Column(name = "total_balance", nullable = false, precision = 19, scale = 2)
+    private BigDecimal totalBalance;
+}
@@ -0,0 +1,35 @@
+package com.example.bankcards.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "job_checkpoints")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class JobCheckpoint {
+
+    @Id
+    @Column(name = "job_name", length = 64)
+    private String jobName;
+
+    @Column(name = "run_date", nullable = false)
+    private LocalDate runDate;
+
+    @Column(name = "last_id", nullable = false)
+    private long lastId;
+
+    @Column(nullable = false)
+    private boolean completed;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -1,8 +1,8 @@
 package com.example.bankcards.exception;
 
-public class AccessDeniedException extends RuntimeException {
+public class AccessDeniedException extends BusinessException {
 
     public AccessDeniedException(String message) {
-        super(message);
+        super(ErrorTemplate.ACCESS_DENIED, message);
     }
 }
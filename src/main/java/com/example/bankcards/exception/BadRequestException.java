@@ -1,8 +1,8 @@
 package com.example.bankcards.exception;
 
-public class BadRequestException extends RuntimeException {
+public class BadRequestException extends BusinessException {
 
     public BadRequestException(String message) {
-        super(message);
+        super(ErrorTemplate.BAD_REQUEST, message);
     }
 }
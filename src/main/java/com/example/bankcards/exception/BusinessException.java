@@ -0,0 +1,16 @@
+package com.example.bankcards.exception;
+
+import lombok.Getter;
+
+// Expected rejections of client requests; they are answered from a template and never need a stack
+// trace, so it is neither captured nor are suppressed exceptions recorded
+@Getter
+public abstract class BusinessException extends RuntimeException {
+
+    private final ErrorTemplate template;
+
+    protected BusinessException(ErrorTemplate template, String message) {
+        super(message, null, false, false);
+        this.template = template;
+    }
+}
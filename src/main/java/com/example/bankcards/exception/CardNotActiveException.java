@@ -1,8 +1,8 @@
 package com.example.bankcards.exception;
 
-public class CardNotActiveException extends RuntimeException {
+public class CardNotActiveException extends BusinessException {
 
     public CardNotActiveException(String message) {
-        super(message);
+        super(ErrorTemplate.CARD_NOT_ACTIVE, message);
     }
 }
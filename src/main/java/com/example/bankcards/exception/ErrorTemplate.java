@@ -0,0 +1,22 @@
+package com.example.bankcards.exception;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+
+@Getter
+@RequiredArgsConstructor
+public enum ErrorTemplate {
+
+    NOT_FOUND(HttpStatus.NOT_FOUND, "Not Found", "Resource not found"),
+    BAD_REQUEST(HttpStatus.BAD_REQUEST, "Bad Request", "Bad request"),
+    ACCESS_DENIED(HttpStatus.FORBIDDEN, "Forbidden", "Access denied"),
+    INSUFFICIENT_FUNDS(HttpStatus.BAD_REQUEST, "Insufficient Funds", "Insufficient funds"),
+    CARD_NOT_ACTIVE(HttpStatus.BAD_REQUEST, "Card Not Active", "Card not active"),
+    INVALID_TOKEN(HttpStatus.UNAUTHORIZED, "Unauthorized", "Invalid token"),
+    SERVICE_UNAVAILABLE(HttpStatus.SERVICE_UNAVAILABLE, "Service Unavailable", "Service unavailable");
+
+    private final HttpStatus status;
+    private final String error;
+    private final String logLabel;
+}
@@ -1,8 +1,12 @@
 package com.example.bankcards.exception;
 
 import com.example.bankcards.dto.response.ApiError;
+import com.example.bankcards.util.LogSampler;
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -19,84 +23,61 @@ import java.util.Map;
 @Slf4j
 public class GlobalExceptionHandler {
 
-    @ExceptionHandler(ResourceNotFoundException.class)
-    public ResponseEntity<ApiError> handleResourceNotFoundException(
-            ResourceNotFoundException ex, HttpServletRequest request) {
-        log.error("Resource not found: {}", ex.getMessage());
+    // Sampler keys after the ErrorTemplate ordinals
+    static final int CONCURRENT_MODIFICATION_LOG = ErrorTemplate.values().length;
+    static final int UNEXPECTED_ERROR_LOG = CONCURRENT_MODIFICATION_LOG + 1;
 
-        ApiError error = ApiError.builder()
-                .timestamp(LocalDateTime.now())
-                .status(HttpStatus.NOT_FOUND.value())
-                .error("Not Found")
-                .message(ex.getMessage())
-                .path(request.getRequestURI())
-                .build();
-
-        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
-    }
-
-    @ExceptionHandler(BadRequestException.class)
-    public ResponseEntity<ApiError> handleBadRequestException(
-            BadRequestException ex, HttpServletRequest request) {
-        log.error("Bad request: {}", ex.getMessage());
-
-        ApiError error = ApiError.builder()
-                .timestamp(LocalDateTime.now())
-                .status(HttpStatus.BAD_REQUEST.value())
-                .error("Bad Request")
-                .message(ex.getMessage())
-                .path(request.getRequestURI())
-                .build();
-
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
-    }
+    @Value("${errors.log.permits-per-second:10}")
+    private int logPermitsPerSecond;
 
-    @ExceptionHandler(AccessDeniedException.class)
-    public ResponseEntity<ApiError> handleAccessDeniedException(
-            AccessDeniedException ex, HttpServletRequest request) {
-        log.error("Access denied: {}", ex.getMessage());
-
-        ApiError error = ApiError.builder()
-                .timestamp(LocalDateTime.now())
-                .status(HttpStatus.FORBIDDEN.value())
-                .error("Forbidden")
-                .message(ex.getMessage())
-                .path(request.getRequestURI())
-                .build();
+    private LogSampler logSampler;
 
-        return ResponseEntity.status(HttpStatus.FORBIDDEN).body(error);
+    @PostConstruct
+    public void init() {
+        logSampler = new LogSampler(UNEXPECTED_ERROR_LOG + 1, logPermitsPerSecond);
     }
 
-    @ExceptionHandler(InsufficientFundsException.class)
-    public ResponseEntity<ApiError> handleInsufficientFundsException(
-            InsufficientFundsException ex, HttpServletRequest request) {
-        log.error("Insufficient funds: {}", ex.getMessage());
+    @ExceptionHandler(BusinessException.class)
+    public ResponseEntity<ApiError> handleBusinessException(
+            BusinessException ex, HttpServletRequest request) {
+        ErrorTemplate template = ex.getTemplate();
+        long suppressed = logSampler.tryAcquire(template.ordinal(), System.nanoTime());
+        if (suppressed == 0) {
+            log.warn("{}: {}", template.getLogLabel(), ex.getMessage());
+        } else if (suppressed > 0) {
+            log.warn("{}: {} ({} similar suppressed)", template.getLogLabel(), ex.getMessage(), suppressed);
+        }
 
         ApiError error = ApiError.builder()
                 .timestamp(LocalDateTime.now())
-                .status(HttpStatus.BAD_REQUEST.value())
-                .error("Insufficient Funds")
+                .status(template.getStatus().value())
+                .error(template.getError())
                 .message(ex.getMessage())
                 .path(request.getRequestURI())
                 .build();
 
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+        return ResponseEntity.status(template.getStatus()).body(error);
     }
 
-    @ExceptionHandler(CardNotActiveException.class)
-    public ResponseEntity<ApiError> handleCardNotActiveException(
-            CardNotActiveException ex, HttpServletRequest request) {
-        log.error("Card not active: {}", ex.getMessage());
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ApiError> handleOptimisticLockingFailureException(
+            OptimisticLockingFailureException ex, HttpServletRequest request) {
+        long suppressed = logSampler.tryAcquire(CONCURRENT_MODIFICATION_LOG, System.nanoTime());
+        if (suppressed == 0) {
+            log.error("Concurrent modification: {}", ex.getMessage());
+        } else if (suppressed > 0) {
+            log.error("Concurrent modification: {} ({} similar suppressed)", ex.getMessage(), suppressed);
+        }
 
         ApiError error = ApiError.builder()
                 .timestamp(LocalDateTime.now())
-                .status(HttpStatus.BAD_REQUEST.value())
-                .error("Card Not Active")
-                .message(ex.getMessage())
+                .status(HttpStatus.CONFLICT.value())
+                .error("Conflict")
+                .message("The card was modified concurrently, please retry")
                 .path(request.getRequestURI())
                 .build();
 
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
     }
 
     @ExceptionHandler(MethodArgumentNotValidException.class)
@@ -158,7 +139,12 @@ public class GlobalExceptionHandler {
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ApiError> handleGenericException(
             Exception ex, HttpServletRequest request) {
-        log.error("Unexpected error: ", ex);
+        long suppressed = logSampler.tryAcquire(UNEXPECTED_ERROR_LOG, System.nanoTime());
+        if (suppressed == 0) {
+            log.error("Unexpected error: ", ex);
+        } else if (suppressed > 0) {
+            log.error("Unexpected error ({} similar suppressed): ", suppressed, ex);
+        }
 
         ApiError error = ApiError.builder()
                 .timestamp(LocalDateTime.now())
@@ -1,8 +1,8 @@
 package com.example.bankcards.exception;
 
-public class InsufficientFundsException extends RuntimeException {
+public class InsufficientFundsException extends BusinessException {
 
     public InsufficientFundsException(String message) {
-        super(message);
+        super(ErrorTemplate.INSUFFICIENT_FUNDS, message);
     }
 }
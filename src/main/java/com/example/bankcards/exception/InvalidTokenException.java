@@ -0,0 +1,8 @@
+package com.example.bankcards.exception;
+
+public class InvalidTokenException extends BusinessException {
+
+    public InvalidTokenException(String message) {
+        super(ErrorTemplate.INVALID_TOKEN, message);
+    }
+}
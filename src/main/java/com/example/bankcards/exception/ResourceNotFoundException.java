@@ -1,12 +1,12 @@
 package com.example.bankcards.exception;
 
-public class ResourceNotFoundException extends RuntimeException {
+public class ResourceNotFoundException extends BusinessException {
 
     public ResourceNotFoundException(String message) {
-        super(message);
+        super(ErrorTemplate.NOT_FOUND, message);
     }
 
     public ResourceNotFoundException(String resourceName, String fieldName, Object fieldValue) {
-        super(String.format("%s not found with %s: '%s'", resourceName, fieldName, fieldValue));
+        super(ErrorTemplate.NOT_FOUND, resourceName + " not found with " + fieldName + ": '" + fieldValue + "'");
     }
 }
@@ -0,0 +1,8 @@
+package com.example.bankcards.exception;
+
+public class ServiceUnavailableException extends BusinessException {
+
+    public ServiceUnavailableException(String message) {
+        super(ErrorTemplate.SERVICE_UNAVAILABLE, message);
+    }
+}
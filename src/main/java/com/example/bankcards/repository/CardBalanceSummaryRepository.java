@@ -0,0 +1,39 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.entity.CardBalanceSummary;
+import com.example.bankcards.entity.CardBalanceSummaryId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Repository
+public interface CardBalanceSummaryRepository extends JpaRepository<CardBalanceSummary, CardBalanceSummaryId> {
+
+    List<CardBalanceSummary> findByIdOwnerId(Long ownerId);
+
+    @Query("SELECT s.id.status AS status, SUM(s.cardCount) AS cardCount, SUM(s.totalBalance) AS totalBalance "
+            + "FROM CardBalanceSummary s GROUP BY s.id.status")
+    List<StatusTotals> sumByStatus();
+
+    @Modifying
+    @Query(value = """
+            INSERT INTO card_balance_summary (owner_id, status, card_count, total_balance)
+            VALUES (:ownerId, :status, :cardCount, :balance)
+            ON CONFLICT (owner_id, status) DO UPDATE
+            SET card_count = card_balance_summary.card_count + EXCLUDED.card_count,
+                total_balance = card_balance_summary.total_balance + EXCLUDED.total_balance
+            """, nativeQuery = true)
+    void add(@Param("ownerId") Long ownerId,
+             @Param("status") String status,
+             @Param("cardCount") long cardCount,
+             @Param("balance") BigDecimal balance);
+
+    @Modifying
+    @Query("DELETE FROM CardBalanceSummary s WHERE s.id.ownerId = :ownerId")
+    void deleteByOwnerId(@Param("ownerId") Long ownerId);
+}
@@ -0,0 +1,12 @@
+package com.example.bankcards.repository;
+
+public interface CardCiphertext {
+
+    Long getId();
+
+    Long getOwnerId();
+
+    Long getVersion();
+
+    String getCardNumber();
+}
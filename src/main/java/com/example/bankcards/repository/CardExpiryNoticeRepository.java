@@ -0,0 +1,30 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.entity.CardExpiryNotice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface CardExpiryNoticeRepository extends JpaRepository<CardExpiryNotice, Long> {
+
+    @Modifying
+    @Query(value = """
+            INSERT INTO card_expiry_notices (card_id, owner_id, expiry_date, created_at)
+            SELECT id, owner_id, expiry_date, CURRENT_TIMESTAMP FROM cards WHERE id IN (:cardIds)
+            ON CONFLICT (card_id, expiry_date) DO NOTHING
+            """, nativeQuery = true)
+    int insertMissing(@Param("cardIds") Collection<Long> cardIds);
+
+    @Modifying
+    @Query("DELETE FROM CardExpiryNotice n WHERE n.cardId = :cardId")
+    void deleteByCardId(@Param("cardId") Long cardId);
+
+    List<CardExpiryNotice> findByOwnerIdAndExpiryDateGreaterThanEqualOrderByExpiryDateAscCardIdAsc(Long ownerId, LocalDate date);
+}
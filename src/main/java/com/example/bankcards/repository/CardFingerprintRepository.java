@@ -0,0 +1,20 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.entity.CardFingerprint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CardFingerprintRepository extends JpaRepository<CardFingerprint, String> {
+
+    @Modifying
+    @Query(value = """
+            INSERT INTO card_fingerprints (fingerprint, card_id, created_at)
+            VALUES (:fingerprint, :cardId, CURRENT_TIMESTAMP)
+            ON CONFLICT (fingerprint) DO NOTHING
+            """, nativeQuery = true)
+    int insertIfAbsent(@Param("fingerprint") String fingerprint, @Param("cardId") Long cardId);
+}
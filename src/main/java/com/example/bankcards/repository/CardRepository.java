@@ -3,20 +3,34 @@ package com.example.bankcards.repository;
 import com.example.bankcards.entity.Card;
 import com.example.bankcards.entity.CardStatus;
 import com.example.bankcards.entity.User;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface CardRepository extends JpaRepository<Card, Long>, JpaSpecificationExecutor<Card> {
 
+    @Override
+    @EntityGraph(attributePaths = "owner")
+    Optional<Card> findById(Long id);
+
+    @Override
+    @EntityGraph(attributePaths = "owner")
+    Page<Card> findAll(Specification<Card> spec, Pageable pageable);
+
     Page<Card> findByOwner(User owner, Pageable pageable);
 
     Page<Card> findByOwnerAndStatus(User owner, CardStatus status, Pageable pageable);
@@ -34,4 +48,39 @@ public interface CardRepository extends JpaRepository<Card, Long>, JpaSpecificat
                                        Pageable pageable);
 
     boolean existsByIdAndOwnerId(Long id, Long ownerId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM Card c WHERE c.owner.id = :ownerId AND c.id IN :ids ORDER BY c.id")
+    List<Card> findAllByOwnerIdAndIdInForUpdate(@Param("ownerId") Long ownerId, @Param("ids") Collection<Long> ids);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM Card c WHERE c.id IN :ids ORDER BY c.id")
+    List<Card> findAllByIdInForUpdate(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT c FROM Card c WHERE c.id > :afterId AND c.expiryDate < :today "
+            + "AND c.status <> com.example.bankcards.entity.CardStatus.EXPIRED ORDER BY c.id")
+    List<Card> findExpiredAfter(@Param("afterId") long afterId, @Param("today") LocalDate today, Pageable pageable);
+
+    @Query("SELECT c.id FROM Card c WHERE c.id > :afterId AND c.expiryDate BETWEEN :from AND :until "
+            + "AND c.status = com.example.bankcards.entity.CardStatus.ACTIVE ORDER BY c.id")
+    List<Long> findIdsExpiringAfter(@Param("afterId") long afterId,
+                                    @Param("from") LocalDate from,
+                                    @Param("until") LocalDate until,
+                                    Pageable pageable);
+
+    @Query("SELECT c.id AS id, c.owner.id AS ownerId, c.version AS version, c.cardNumber AS cardNumber FROM Card c "
+            + "WHERE c.id > :afterId AND c.cardNumber NOT LIKE :keyPrefix ORDER BY c.id")
+    List<CardCiphertext> findCiphertextsNotWithKeyAfter(@Param("afterId") long afterId,
+                                                        @Param("keyPrefix") String keyPrefix,
+                                                        Pageable pageable);
+
+    @Query("SELECT COUNT(c) FROM Card c WHERE c.cardNumber NOT LIKE :keyPrefix")
+    long countNotWithKey(@Param("keyPrefix") String keyPrefix);
+
+    @Query("SELECT c.id AS id, c.owner.id AS ownerId, c.version AS version, c.cardNumber AS cardNumber FROM Card c "
+            + "LEFT JOIN CardFingerprint f ON f.cardId = c.id WHERE c.id > :afterId AND f.fingerprint IS NULL ORDER BY c.id")
+    List<CardCiphertext> findCiphertextsWithoutFingerprintAfter(@Param("afterId") long afterId, Pageable pageable);
+
+    @Query("SELECT c.owner.id AS ownerId, c.version AS version FROM Card c WHERE c.id = :id")
+    Optional<CardVersion> findVersionById(@Param("id") Long id);
 }
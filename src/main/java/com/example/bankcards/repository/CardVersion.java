@@ -0,0 +1,8 @@
+package com.example.bankcards.repository;
+
+public interface CardVersion {
+
+    Long getOwnerId();
+
+    Long getVersion();
+}
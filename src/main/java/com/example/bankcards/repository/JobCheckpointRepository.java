@@ -0,0 +1,16 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.entity.JobCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface JobCheckpointRepository extends JpaRepository<JobCheckpoint, String> {
+
+    @Modifying
+    @Query("DELETE FROM JobCheckpoint j WHERE j.jobName LIKE :prefix AND j.jobName <> :jobName")
+    int deleteOthersWithPrefix(@Param("prefix") String prefix, @Param("jobName") String jobName);
+}
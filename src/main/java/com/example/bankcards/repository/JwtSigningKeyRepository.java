@@ -0,0 +1,32 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.entity.JwtSigningKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Repository
+public interface JwtSigningKeyRepository extends JpaRepository<JwtSigningKey, Long> {
+
+    List<JwtSigningKey> findAllByOrderByGenerationAsc();
+
+    @Query("SELECT k FROM JwtSigningKey k WHERE k.privateKey NOT LIKE :keyPrefix ORDER BY k.generation")
+    List<JwtSigningKey> findNotWithKey(@Param("keyPrefix") String keyPrefix);
+
+    // Compares the old ciphertext, so a concurrent rewrite is not overwritten
+    @Transactional
+    @Modifying
+    @Query("UPDATE JwtSigningKey k SET k.privateKey = :privateKey WHERE k.id = :id AND k.privateKey = :previous")
+    int updatePrivateKey(@Param("id") Long id, @Param("previous") String previous,
+                         @Param("privateKey") String privateKey);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM JwtSigningKey k WHERE k.generation < :generation")
+    int deleteOlderThan(@Param("generation") int generation);
+}
@@ -0,0 +1,44 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.entity.PendingTransfer;
+import com.example.bankcards.entity.PendingTransferStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface PendingTransferRepository extends JpaRepository<PendingTransfer, Long> {
+
+    @Query(value = """
+            SELECT * FROM pending_transfers
+            WHERE status = 'PENDING' AND (next_attempt_at IS NULL OR next_attempt_at <= :now)
+            ORDER BY id LIMIT 1 FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    Optional<PendingTransfer> claimNext(@Param("now") LocalDateTime now);
+
+    // Matches only the attempt that was claimed, so a worker that re-claimed the row after the rollback
+    // does not count the same attempt twice
+    @Modifying
+    @Query("""
+            UPDATE PendingTransfer t
+            SET t.attempts = t.attempts + 1, t.status = :status, t.error = :error,
+                t.nextAttemptAt = :nextAttemptAt, t.processedAt = :processedAt
+            WHERE t.id = :id AND t.attempts = :attempts
+              AND t.status = com.example.bankcards.entity.PendingTransferStatus.PENDING
+            """)
+    int recordFailedAttempt(@Param("id") Long id,
+                            @Param("attempts") int attempts,
+                            @Param("status") PendingTransferStatus status,
+                            @Param("error") String error,
+                            @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                            @Param("processedAt") LocalDateTime processedAt);
+
+    Optional<PendingTransfer> findByIdAndOwnerId(Long id, Long ownerId);
+
+    long countByStatus(PendingTransferStatus status);
+}
@@ -0,0 +1,34 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.entity.SchedulerLock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface SchedulerLockRepository extends JpaRepository<SchedulerLock, String> {
+
+    @Modifying
+    @Query(value = """
+            INSERT INTO scheduler_locks (name, locked_until, locked_at, locked_by)
+            VALUES (:name, :until, :now, :node)
+            ON CONFLICT (name) DO UPDATE
+            SET locked_until = EXCLUDED.locked_until,
+                locked_at = EXCLUDED.locked_at,
+                locked_by = EXCLUDED.locked_by
+            WHERE scheduler_locks.locked_until <= EXCLUDED.locked_at
+               OR scheduler_locks.locked_by = EXCLUDED.locked_by
+            """, nativeQuery = true)
+    int acquire(@Param("name") String name,
+                @Param("until") LocalDateTime until,
+                @Param("now") LocalDateTime now,
+                @Param("node") String node);
+
+    @Modifying
+    @Query("UPDATE SchedulerLock l SET l.lockedUntil = :now WHERE l.name = :name AND l.lockedBy = :node")
+    int release(@Param("name") String name, @Param("now") LocalDateTime now, @Param("node") String node);
+}
@@ -0,0 +1,14 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.entity.CardStatus;
+
+import java.math.BigDecimal;
+
+public interface StatusTotals {
+
+    CardStatus getStatus();
+
+    Long getCardCount();
+
+    BigDecimal getTotalBalance();
+}
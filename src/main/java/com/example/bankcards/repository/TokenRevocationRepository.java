@@ -0,0 +1,34 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.entity.TokenRevocation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface TokenRevocationRepository extends JpaRepository<TokenRevocation, Long> {
+
+    // Revoking the same token twice (double logout) is not an error
+    @Modifying
+    @Query(value = """
+            INSERT INTO token_revocations (jti, expires_at, created_at)
+            VALUES (:jti, :expiresAt, CURRENT_TIMESTAMP)
+            ON CONFLICT (jti) DO NOTHING
+            """, nativeQuery = true)
+    int insertIfAbsent(@Param("jti") String jti, @Param("expiresAt") LocalDateTime expiresAt);
+
+    List<TokenRevocation> findByCreatedAtGreaterThanOrderByCreatedAtAsc(LocalDateTime since);
+
+    List<TokenRevocation> findByExpiresAtAfter(LocalDateTime now);
+
+    boolean existsByJti(String jti);
+
+    @Modifying
+    @Query("DELETE FROM TokenRevocation r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
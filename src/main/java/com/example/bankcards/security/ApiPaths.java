@@ -0,0 +1,32 @@
+package com.example.bankcards.security;
+
+final class ApiPaths {
+
+    static final String TRANSFER = "/api/cards/transfer";
+    static final String BATCH_TRANSFER = "/api/cards/transfers/batch";
+
+    private static final String CARDS_PREFIX = "/api/cards/";
+    private static final String BALANCE_SUFFIX = "/balance";
+
+    private ApiPaths() {
+    }
+
+    // /api/cards/{id}/balance
+    static boolean isBalance(String uri) {
+        int idEnd = uri.length() - BALANCE_SUFFIX.length();
+        if (idEnd <= CARDS_PREFIX.length() || !uri.startsWith(CARDS_PREFIX) || !uri.endsWith(BALANCE_SUFFIX)) {
+            return false;
+        }
+        for (int i = CARDS_PREFIX.length(); i < idEnd; i++) {
+            if (!Character.isDigit(uri.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // The path itself or anything below it, but not a sibling sharing its prefix
+    static boolean isUnder(String uri, String path) {
+        return uri.startsWith(path) && (uri.length() == path.length() || uri.charAt(path.length()) == '/');
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.bankcards.security;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.util.concurrent.TimeUnit;
+
+// Hikari reports acquire and usage times on the borrowing thread, so the sum is per request thread
+@RequiredArgsConstructor
+public class DatabaseTimeTracker implements MetricsTrackerFactory {
+
+    private static final ThreadLocal<long[]> NANOS = ThreadLocal.withInitial(() -> new long[1]);
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    static long currentThreadNanos() {
+        return NANOS.get()[0];
+    }
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        IMetricsTracker delegate = registry == null
+                ? new IMetricsTracker() { }
+                : new MicrometerMetricsTrackerFactory(registry).create(poolName, poolStats);
+        return new IMetricsTracker() {
+            @Override
+            public void recordConnectionCreatedMillis(long connectionCreatedMillis) {
+                delegate.recordConnectionCreatedMillis(connectionCreatedMillis);
+            }
+
+            @Override
+            public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                NANOS.get()[0] += elapsedAcquiredNanos;
+                delegate.recordConnectionAcquiredNanos(elapsedAcquiredNanos);
+            }
+
+            @Override
+            public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+                NANOS.get()[0] += TimeUnit.MILLISECONDS.toNanos(elapsedBorrowedMillis);
+                delegate.recordConnectionUsageMillis(elapsedBorrowedMillis);
+            }
+
+            @Override
+            public void recordConnectionTimeout() {
+                delegate.recordConnectionTimeout();
+            }
+
+            @Override
+            public void close() {
+                delegate.close();
+            }
+        };
+    }
+}
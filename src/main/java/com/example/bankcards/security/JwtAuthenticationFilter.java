@@ -1,5 +1,7 @@
 package com.example.bankcards.security;
 
+import com.example.bankcards.service.TokenRevocationService;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -8,6 +10,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
@@ -16,6 +19,8 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 
 @Component
 @RequiredArgsConstructor
@@ -24,6 +29,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtTokenProvider tokenProvider;
     private final UserDetailsService userDetailsService;
+    private final TokenRevocationService tokenRevocationService;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -31,10 +37,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                                     FilterChain filterChain) throws ServletException, IOException {
         try {
             String jwt = getJwtFromRequest(request);
+            Claims claims = StringUtils.hasText(jwt) ? tokenProvider.parseToken(jwt) : null;
 
-            if (StringUtils.hasText(jwt) && tokenProvider.validateToken(jwt)) {
-                String email = tokenProvider.getEmailFromToken(jwt);
-                UserDetails userDetails = userDetailsService.loadUserByUsername(email);
+            if (claims != null && !isRevoked(claims)) {
+                UserDetails userDetails = toUserDetails(claims);
 
                 UsernamePasswordAuthenticationToken authentication =
                         new UsernamePasswordAuthenticationToken(
@@ -53,6 +59,24 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    private boolean isRevoked(Claims claims) {
+        LocalDateTime issuedAt = claims.getIssuedAt() == null ? null
+                : LocalDateTime.ofInstant(claims.getIssuedAt().toInstant(), ZoneId.systemDefault());
+        return tokenRevocationService.isRevoked(claims.getId(), claims.getSubject(), issuedAt);
+    }
+
+    // Tokens issued before the role claim existed still resolve the user from the database
+    private UserDetails toUserDetails(Claims claims) {
+        String role = claims.get(JwtTokenProvider.ROLE_CLAIM, String.class);
+        if (role == null) {
+            return userDetailsService.loadUserByUsername(claims.getSubject());
+        }
+        return User.withUsername(claims.getSubject())
+                .password("")
+                .roles(role)
+                .build();
+    }
+
     private String getJwtFromRequest(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
         if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
@@ -1,79 +1,175 @@
 package com.example.bankcards.security;
 
+import com.example.bankcards.service.JwtKeyService;
+import com.example.bankcards.util.LogSampler;
 import io.jsonwebtoken.*;
-import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SecurityException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
-import javax.crypto.SecretKey;
-import java.nio.charset.StandardCharsets;
+import java.security.Key;
 import java.util.Date;
+import java.util.UUID;
 
 @Component
+@RequiredArgsConstructor
 @Slf4j
 public class JwtTokenProvider {
 
-    @Value("${jwt.secret}")
-    private String jwtSecret;
+    enum Rejection {
+        MALFORMED("Invalid JWT token"),
+        EXPIRED("Expired JWT token"),
+        UNSUPPORTED("Unsupported JWT token"),
+        BAD_SIGNATURE("JWT signature does not match"),
+        UNKNOWN_KEY("JWT signed with an unknown key"),
+        EMPTY("JWT claims string is empty");
+
+        private final String logMessage;
+
+        Rejection(String logMessage) {
+            this.logMessage = logMessage;
+        }
+    }
+
+    public static final String ROLE_CLAIM = "role";
+
+    private static final String ROLE_PREFIX = "ROLE_";
+
+    private final JwtKeyService jwtKeyService;
+    private final MeterRegistry meterRegistry;
 
     @Value("${jwt.expiration}")
     private long jwtExpiration;
 
-    private SecretKey key;
+    @Value("${jwt.log-permits-per-second:5}")
+    private int logPermitsPerSecond;
+
+    @Value("${jwt.verified-cache.max-entries:100000}")
+    private int verifiedCacheMaxEntries;
+
+    private JwtParser parser;
+    private VerifiedTokenCache verifiedTokens;
+    private LogSampler logSampler;
+    private Counter[] rejections;
+    private Counter cacheHits;
+    private Counter cacheMisses;
+
+    // After a rotation an unknown kid usually means this node has not loaded the new key yet
+    private static class UnknownKeyException extends SecurityException {
+        UnknownKeyException(String kid) {
+            super("Unknown JWT key id " + kid);
+        }
+    }
 
     @PostConstruct
     public void init() {
-        byte[] keyBytes = jwtSecret.getBytes(StandardCharsets.UTF_8);
-        this.key = Keys.hmacShaKeyFor(keyBytes);
+        this.parser = Jwts.parser()
+                .keyLocator(new LocatorAdapter<Key>() {
+                    @Override
+                    protected Key locate(JwsHeader header) {
+                        Key key = jwtKeyService.publicKey(header.getKeyId());
+                        if (key == null) {
+                            throw new UnknownKeyException(header.getKeyId());
+                        }
+                        return key;
+                    }
+                })
+                .build();
+        verifiedTokens = new VerifiedTokenCache(verifiedCacheMaxEntries);
+
+        logSampler = new LogSampler(Rejection.values().length, logPermitsPerSecond);
+        rejections = new Counter[Rejection.values().length];
+        for (Rejection rejection : Rejection.values()) {
+            rejections[rejection.ordinal()] = Counter.builder("security.jwt.rejected")
+                    .description("Bearer tokens that failed validation")
+                    .tag("reason", rejection.name().toLowerCase())
+                    .register(meterRegistry);
+        }
+        cacheHits = Counter.builder("security.jwt.verified-cache")
+                .description("Bearer tokens looked up in the verified token cache")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        cacheMisses = Counter.builder("security.jwt.verified-cache")
+                .description("Bearer tokens looked up in the verified token cache")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("security.jwt.verified-cache.size", verifiedTokens, VerifiedTokenCache::size)
+                .description("Verified tokens currently cached")
+                .register(meterRegistry);
     }
 
     public String generateToken(Authentication authentication) {
         UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-        return generateToken(userDetails.getUsername());
+        String role = userDetails.getAuthorities().iterator().next().getAuthority().substring(ROLE_PREFIX.length());
+        return generateToken(userDetails.getUsername(), role);
     }
 
-    public String generateToken(String email) {
+    public String generateToken(String email, String role) {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + jwtExpiration);
+        JwtKeyService.SigningKey signingKey = jwtKeyService.signingKey();
 
         return Jwts.builder()
+                .header().keyId(signingKey.getKid()).and()
+                .id(UUID.randomUUID().toString())
                 .subject(email)
+                .claim(ROLE_CLAIM, role)
                 .issuedAt(now)
                 .expiration(expiryDate)
-                .signWith(key)
+                .signWith(signingKey.getPrivateKey(), Jwts.SIG.ES256)
                 .compact();
     }
 
-    public String getEmailFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(key)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-
-        return claims.getSubject();
-    }
+    // Null for a token that is malformed, expired or not signed with one of our keys
+    public Claims parseToken(String token) {
+        if (token == null || token.isEmpty()) {
+            reject(Rejection.EMPTY);
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        String cacheKey = verifiedTokens.key(token);
+        Claims cached = verifiedTokens.get(cacheKey, now);
+        if (cached != null) {
+            cacheHits.increment();
+            return cached;
+        }
+        cacheMisses.increment();
 
-    public boolean validateToken(String token) {
         try {
-            Jwts.parser()
-                    .verifyWith(key)
-                    .build()
-                    .parseSignedClaims(token);
-            return true;
+            Claims claims = parser.parseSignedClaims(token).getPayload();
+            verifiedTokens.put(cacheKey, claims, now);
+            return claims;
         } catch (MalformedJwtException ex) {
-            log.error("Invalid JWT token");
+            reject(Rejection.MALFORMED);
         } catch (ExpiredJwtException ex) {
-            log.error("Expired JWT token");
+            reject(Rejection.EXPIRED);
         } catch (UnsupportedJwtException ex) {
-            log.error("Unsupported JWT token");
+            reject(Rejection.UNSUPPORTED);
+        } catch (UnknownKeyException ex) {
+            reject(Rejection.UNKNOWN_KEY);
+        } catch (SecurityException ex) {
+            reject(Rejection.BAD_SIGNATURE);
         } catch (IllegalArgumentException ex) {
-            log.error("JWT claims string is empty");
+            reject(Rejection.EMPTY);
+        }
+        return null;
+    }
+
+    private void reject(Rejection rejection) {
+        rejections[rejection.ordinal()].increment();
+        long suppressed = logSampler.tryAcquire(rejection.ordinal(), System.nanoTime());
+        if (suppressed == 0) {
+            log.warn(rejection.logMessage);
+        } else if (suppressed > 0) {
+            log.warn("{} ({} similar suppressed)", rejection.logMessage, suppressed);
         }
-        return false;
     }
 }
@@ -0,0 +1,199 @@
+package com.example.bankcards.security;
+
+import com.example.bankcards.dto.response.ApiError;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.DoubleUnaryOperator;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LoadSheddingFilter extends OncePerRequestFilter {
+
+    enum Priority {
+        CRITICAL, NORMAL, LOW
+    }
+
+    private final DataSource dataSource;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${load-shedding.enabled:true}")
+    private boolean enabled;
+
+    @Value("${load-shedding.initial-limit:20}")
+    private int initialLimit;
+
+    @Value("${load-shedding.min-limit:4}")
+    private int minLimit;
+
+    @Value("${load-shedding.max-limit:200}")
+    private int maxLimit;
+
+    @Value("${load-shedding.latency-target-ms:250}")
+    private long latencyTargetMs;
+
+    @Value("${load-shedding.backoff-ratio:0.9}")
+    private double backoffRatio;
+
+    @Value("${load-shedding.normal-priority-share:0.8}")
+    private double normalPriorityShare;
+
+    @Value("${load-shedding.low-priority-share:0.5}")
+    private double lowPriorityShare;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong limitBits = new AtomicLong();
+    private final AtomicLong lastBackoffNanos = new AtomicLong();
+    private long latencyTargetNanos;
+    private HikariDataSource hikari;
+    private Counter[] shed;
+
+    @PostConstruct
+    public void init() {
+        limitBits.set(Double.doubleToRawLongBits(Math.min(maxLimit, Math.max(minLimit, initialLimit))));
+        latencyTargetNanos = TimeUnit.MILLISECONDS.toNanos(latencyTargetMs);
+        lastBackoffNanos.set(System.nanoTime() - latencyTargetNanos);
+        hikari = unwrapHikari();
+
+        shed = new Counter[Priority.values().length];
+        for (Priority priority : Priority.values()) {
+            shed[priority.ordinal()] = Counter.builder("http.load-shedding.shed")
+                    .description("Requests rejected with 503 by the adaptive concurrency limit")
+                    .tag("priority", priority.name().toLowerCase())
+                    .register(meterRegistry);
+        }
+        Gauge.builder("http.load-shedding.limit", this, LoadSheddingFilter::getLimit)
+                .description("Current adaptive concurrency limit")
+                .register(meterRegistry);
+        Gauge.builder("http.load-shedding.in-flight", inFlight, AtomicInteger::get)
+                .description("Requests currently admitted by the adaptive concurrency limit")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        Priority priority = classify(request);
+        if (inFlight.incrementAndGet() > admissionLimit(priority)) {
+            inFlight.decrementAndGet();
+            shed[priority.ordinal()].increment();
+            reject(request, response);
+            return;
+        }
+
+        long databaseStart = DatabaseTimeTracker.currentThreadNanos();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            onSample(priority, DatabaseTimeTracker.currentThreadNanos() - databaseStart, pendingConnections(),
+                    System.nanoTime());
+            inFlight.decrementAndGet();
+        }
+    }
+
+    void onSample(Priority priority, long databaseNanos, int pendingConnections, long now) {
+        if (priority == Priority.LOW) {
+            return;
+        }
+        if (databaseNanos > latencyTargetNanos || pendingConnections > 0) {
+            // Back off at most once per target interval so one slow burst does not collapse the limit;
+            // the thread that wins the CAS on the timestamp applies it
+            long last = lastBackoffNanos.get();
+            if (now - last >= latencyTargetNanos && lastBackoffNanos.compareAndSet(last, now)) {
+                updateLimit(current -> Math.max(minLimit, current * backoffRatio));
+            }
+        } else if (inFlight.get() * 2 >= getLimit()) {
+            updateLimit(current -> Math.min(maxLimit, current + 1));
+        }
+    }
+
+    private void updateLimit(DoubleUnaryOperator update) {
+        limitBits.getAndUpdate(bits -> Double.doubleToRawLongBits(update.applyAsDouble(Double.longBitsToDouble(bits))));
+    }
+
+    int admissionLimit(Priority priority) {
+        double share = switch (priority) {
+            case CRITICAL -> 1.0;
+            case NORMAL -> normalPriorityShare;
+            case LOW -> lowPriorityShare;
+        };
+        return Math.max(1, (int) (getLimit() * share));
+    }
+
+    Priority classify(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        if (uri.equals(ApiPaths.TRANSFER) || uri.equals(ApiPaths.BATCH_TRANSFER) || ApiPaths.isBalance(uri)) {
+            return Priority.CRITICAL;
+        }
+        if (ApiPaths.isUnder(uri, "/api/cards/all") || ApiPaths.isUnder(uri, "/api/users")) {
+            return Priority.LOW;
+        }
+        return Priority.NORMAL;
+    }
+
+    double getLimit() {
+        return Double.longBitsToDouble(limitBits.get());
+    }
+
+    private int pendingConnections() {
+        if (hikari == null) {
+            return 0;
+        }
+        HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+        return pool == null ? 0 : pool.getThreadsAwaitingConnection();
+    }
+
+    private HikariDataSource unwrapHikari() {
+        try {
+            return dataSource.isWrapperFor(HikariDataSource.class) ? dataSource.unwrap(HikariDataSource.class) : null;
+        } catch (SQLException e) {
+            log.warn("Connection pool wait is not observable, shedding on latency only: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), ApiError.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.SERVICE_UNAVAILABLE.value())
+                .error("Service Unavailable")
+                .message("Server is overloaded, retry later")
+                .path(request.getRequestURI())
+                .build());
+    }
+}
@@ -0,0 +1,268 @@
+package com.example.bankcards.security;
+
+import com.example.bankcards.dto.response.ApiError;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+@Component
+@RequiredArgsConstructor
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    enum EndpointClass {
+        TRANSFER, BALANCE, DEFAULT
+    }
+
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${rate-limit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${rate-limit.max-users:100000}")
+    private int maxUsers;
+
+    @Value("${rate-limit.transfer.per-second:10}")
+    private double transferPerSecond;
+
+    @Value("${rate-limit.transfer.burst:20}")
+    private int transferBurst;
+
+    @Value("${rate-limit.balance.per-second:20}")
+    private double balancePerSecond;
+
+    @Value("${rate-limit.balance.burst:40}")
+    private int balanceBurst;
+
+    @Value("${rate-limit.default.per-second:50}")
+    private double defaultPerSecond;
+
+    @Value("${rate-limit.default.burst:100}")
+    private int defaultBurst;
+
+    @Value("${rate-limit.max-concurrent-per-user:8}")
+    private int maxConcurrentPerUser;
+
+    private final Map<String, UserState> users = new ConcurrentHashMap<>();
+    private volatile long lastSweepNanos;
+    private long[] emissionIntervalNanos;
+    private long[] burstNanos;
+    private Counter[] rateRejections;
+    private Counter[] concurrencyRejections;
+    private Counter capacityRejections;
+
+    @PostConstruct
+    public void init() {
+        lastSweepNanos = System.nanoTime() - TimeUnit.SECONDS.toNanos(1);
+        int classes = EndpointClass.values().length;
+        emissionIntervalNanos = new long[classes];
+        burstNanos = new long[classes];
+        configure(EndpointClass.TRANSFER, transferPerSecond, transferBurst);
+        configure(EndpointClass.BALANCE, balancePerSecond, balanceBurst);
+        configure(EndpointClass.DEFAULT, defaultPerSecond, defaultBurst);
+
+        rateRejections = new Counter[classes];
+        concurrencyRejections = new Counter[classes];
+        for (EndpointClass endpointClass : EndpointClass.values()) {
+            rateRejections[endpointClass.ordinal()] = rejections(endpointClass, "rate");
+            concurrencyRejections[endpointClass.ordinal()] = rejections(endpointClass, "concurrency");
+        }
+        capacityRejections = Counter.builder("http.rate-limit.rejected")
+                .description("Requests rejected with 429 by the per-user limiter")
+                .tag("endpoint", "any")
+                .tag("reason", "capacity")
+                .register(meterRegistry);
+        Gauge.builder("http.rate-limit.in-flight", this, RateLimitFilter::totalInFlight)
+                .description("Requests currently holding a per-user concurrency slot")
+                .register(meterRegistry);
+        Gauge.builder("http.rate-limit.users", users, Map::size)
+                .description("Users with limiter state")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        EndpointClass endpointClass = classify(request);
+        long now = System.nanoTime();
+        String user = authentication.getName();
+        UserState state;
+        int inFlight;
+        while (true) {
+            state = stateOf(user, now);
+            if (state == null) {
+                capacityRejections.increment();
+                reject(request, response, TimeUnit.SECONDS.toNanos(1), "Too many active users");
+                return;
+            }
+            inFlight = state.inFlight.incrementAndGet();
+            if (inFlight > 0) {
+                break;
+            }
+            // Retired by a concurrent sweep
+            users.remove(user, state);
+        }
+
+        try {
+            if (inFlight > maxConcurrentPerUser) {
+                concurrencyRejections[endpointClass.ordinal()].increment();
+                reject(request, response, TimeUnit.SECONDS.toNanos(1), "Too many concurrent requests");
+                return;
+            }
+            long retryAfterNanos = acquireRate(state, endpointClass, now);
+            if (retryAfterNanos > 0) {
+                rateRejections[endpointClass.ordinal()].increment();
+                reject(request, response, retryAfterNanos, "Request rate limit exceeded");
+                return;
+            }
+            filterChain.doFilter(request, response);
+        } finally {
+            state.inFlight.decrementAndGet();
+        }
+    }
+
+    // Null when the user is new and every tracked user is still active
+    UserState stateOf(String user, long now) {
+        UserState state = users.get(user);
+        if (state == null) {
+            if (users.size() >= maxUsers && !sweep(now)) {
+                return null;
+            }
+            state = users.computeIfAbsent(user, ignored -> new UserState(now));
+        }
+        return state;
+    }
+
+    // Returns 0 when the request conforms, otherwise how long until it would
+    long acquireRate(UserState state, EndpointClass endpointClass, long now) {
+        int slot = endpointClass.ordinal();
+        long interval = emissionIntervalNanos[slot];
+        long burst = burstNanos[slot];
+        while (true) {
+            long arrival = state.arrivals.get(slot);
+            long next = (arrival - now > 0 ? arrival : now) + interval;
+            if (next - now > burst) {
+                return next - now - burst;
+            }
+            if (state.arrivals.compareAndSet(slot, arrival, next)) {
+                return 0;
+            }
+        }
+    }
+
+    // An idle state behaves exactly like a new one, so evicting it resets nothing
+    private boolean sweep(long now) {
+        if (now - lastSweepNanos >= TimeUnit.SECONDS.toNanos(1)) {
+            lastSweepNanos = now;
+            users.values().removeIf(state -> state.retireIfIdle(now));
+        }
+        return users.size() < maxUsers;
+    }
+
+    EndpointClass classify(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        if (uri.equals(ApiPaths.TRANSFER)) {
+            return EndpointClass.TRANSFER;
+        }
+        if (ApiPaths.isBalance(uri)) {
+            return EndpointClass.BALANCE;
+        }
+        return EndpointClass.DEFAULT;
+    }
+
+    private void configure(EndpointClass endpointClass, double perSecond, int burst) {
+        long interval = (long) (TimeUnit.SECONDS.toNanos(1) / perSecond);
+        emissionIntervalNanos[endpointClass.ordinal()] = interval;
+        burstNanos[endpointClass.ordinal()] = interval * Math.max(1, burst);
+    }
+
+    private Counter rejections(EndpointClass endpointClass, String reason) {
+        return Counter.builder("http.rate-limit.rejected")
+                .description("Requests rejected with 429 by the per-user limiter")
+                .tag("endpoint", endpointClass.name().toLowerCase())
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    private double totalInFlight() {
+        long total = 0;
+        for (UserState state : users.values()) {
+            total += Math.max(0, state.inFlight.get());
+        }
+        return total;
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response,
+                        long retryAfterNanos, String message) throws IOException {
+        long retryAfterSeconds = Math.max(1, (retryAfterNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), ApiError.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.TOO_MANY_REQUESTS.value())
+                .error("Too Many Requests")
+                .message(message)
+                .path(request.getRequestURI())
+                .build());
+    }
+
+    static final class UserState {
+
+        private static final int RETIRED = Integer.MIN_VALUE / 2;
+
+        // Theoretical arrival time per endpoint class
+        final AtomicLongArray arrivals = new AtomicLongArray(EndpointClass.values().length);
+        final AtomicInteger inFlight = new AtomicInteger();
+
+        UserState(long now) {
+            for (int i = 0; i < arrivals.length(); i++) {
+                arrivals.set(i, now);
+            }
+        }
+
+        boolean retireIfIdle(long now) {
+            for (int i = 0; i < arrivals.length(); i++) {
+                if (arrivals.get(i) - now > 0) {
+                    return false;
+                }
+            }
+            return inFlight.compareAndSet(0, RETIRED);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.bankcards.security;
+
+import io.jsonwebtoken.Claims;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Signature checks only: revocation is still checked on every request
+class VerifiedTokenCache {
+
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    });
+
+    private final Map<String, Claims> entries = new ConcurrentHashMap<>();
+    private final int maxEntries;
+    private volatile long lastSweepMillis;
+
+    VerifiedTokenCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    String key(String token) {
+        return Base64.getEncoder().encodeToString(SHA256.get().digest(token.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    Claims get(String key, long nowMillis) {
+        Claims claims = entries.get(key);
+        if (claims != null && !isLive(claims, nowMillis)) {
+            entries.remove(key);
+            return null;
+        }
+        return claims;
+    }
+
+    void put(String key, Claims claims, long nowMillis) {
+        if (maxEntries <= 0 || claims.getExpiration() == null) {
+            return;
+        }
+        if (entries.size() >= maxEntries) {
+            if (nowMillis - lastSweepMillis >= 1000) {
+                lastSweepMillis = nowMillis;
+                entries.values().removeIf(cached -> !isLive(cached, nowMillis));
+            }
+            if (entries.size() >= maxEntries) {
+                return;
+            }
+        }
+        entries.put(key, claims);
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private static boolean isLive(Claims claims, long nowMillis) {
+        Date expiration = claims.getExpiration();
+        return expiration != null && expiration.getTime() > nowMillis;
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.bankcards.service;
 
 import com.example.bankcards.dto.request.LoginRequest;
+import com.example.bankcards.dto.request.RefreshTokenRequest;
 import com.example.bankcards.dto.request.RegisterRequest;
 import com.example.bankcards.dto.response.AuthResponse;
 import com.example.bankcards.entity.Role;
@@ -8,6 +9,7 @@ import com.example.bankcards.entity.User;
 import com.example.bankcards.exception.BadRequestException;
 import com.example.bankcards.repository.UserRepository;
 import com.example.bankcards.security.JwtTokenProvider;
+import io.jsonwebtoken.Claims;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -17,6 +19,9 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
 @Service
 @RequiredArgsConstructor
 public class AuthService {
@@ -25,6 +30,8 @@ public class AuthService {
     private final PasswordEncoder passwordEncoder;
     private final JwtTokenProvider tokenProvider;
     private final AuthenticationManager authenticationManager;
+    private final TokenRevocationService tokenRevocationService;
+    private final RefreshTokenService refreshTokenService;
 
     @Transactional
     public AuthResponse register(RegisterRequest request) {
@@ -40,10 +47,11 @@ public class AuthService {
 
         userRepository.save(user);
 
-        String token = tokenProvider.generateToken(user.getEmail());
+        String token = tokenProvider.generateToken(user.getEmail(), user.getRole().name());
 
         return AuthResponse.builder()
                 .token(token)
+                .refreshToken(refreshTokenService.issue(user))
                 .type("Bearer")
                 .email(user.getEmail())
                 .role(user.getRole().name())
@@ -66,9 +74,40 @@ public class AuthService {
 
         return AuthResponse.builder()
                 .token(token)
+                .refreshToken(refreshTokenService.issue(user))
                 .type("Bearer")
                 .email(user.getEmail())
                 .role(user.getRole().name())
                 .build();
     }
+
+    public AuthResponse refresh(RefreshTokenRequest request) {
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(request.getRefreshToken());
+        User user = rotation.getUser();
+
+        return AuthResponse.builder()
+                .token(tokenProvider.generateToken(user.getEmail(), user.getRole().name()))
+                .refreshToken(rotation.getRefreshToken())
+                .type("Bearer")
+                .email(user.getEmail())
+                .role(user.getRole().name())
+                .build();
+    }
+
+    // An expired access token is the usual state of a client logging out; its refresh token is still revoked
+    public void logout(String token, String refreshToken) {
+        boolean hasRefreshToken = refreshToken != null && !refreshToken.isBlank();
+        if (hasRefreshToken) {
+            refreshTokenService.revoke(refreshToken);
+        }
+        Claims claims = token == null ? null : tokenProvider.parseToken(token);
+        if (claims == null || claims.getId() == null) {
+            if (hasRefreshToken) {
+                return;
+            }
+            throw new BadRequestException("A valid access token or refresh token is required to log out");
+        }
+        tokenRevocationService.revokeToken(claims.getId(),
+                LocalDateTime.ofInstant(claims.getExpiration().toInstant(), ZoneId.systemDefault()));
+    }
 }
@@ -0,0 +1,43 @@
+package com.example.bankcards.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CardAnalyticsJob {
+
+    static final String JOB = "card-analytics-views";
+
+    private final CardAnalyticsService cardAnalyticsService;
+    private final SchedulerLockService schedulerLockService;
+
+    @Value("${scheduler.lock-at-most-for:PT10M}")
+    private Duration lockAtMostFor;
+
+    @Scheduled(initialDelayString = "${scheduler.initial-delay:PT30S}",
+            fixedDelayString = "${analytics.view-refresh-interval:PT5M}")
+    public void refreshViews() {
+        if (!schedulerLockService.tryLock(JOB, lockAtMostFor)) {
+            log.debug("Job {} is running on another node", JOB);
+            return;
+        }
+
+        long started = System.nanoTime();
+        try {
+            cardAnalyticsService.refreshViews();
+            log.debug("Job {} refreshed analytics views in {} ms", JOB,
+                    Duration.ofNanos(System.nanoTime() - started).toMillis());
+        } catch (RuntimeException ex) {
+            log.warn("Job {} failed: {}", JOB, ex.getMessage());
+        } finally {
+            schedulerLockService.unlock(JOB);
+        }
+    }
+}
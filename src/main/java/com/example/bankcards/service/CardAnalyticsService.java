@@ -0,0 +1,251 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.response.AnalyticsRow;
+import com.example.bankcards.dto.response.CardAnalyticsResponse;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CardAnalyticsService {
+
+    enum Aggregate {
+        BY_STATUS("byStatus", """
+                SELECT status AS key, NULL AS bucket, NULL AS owner_count,
+                       SUM(card_count) AS card_count, SUM(total_balance) AS total_balance
+                FROM card_balance_summary
+                WHERE card_count > 0
+                GROUP BY status
+                ORDER BY status
+                """),
+        BY_OWNER_COHORT("byOwnerCohort", """
+                SELECT to_char(date_trunc('month', u.created_at), 'YYYY-MM') AS key, NULL AS bucket,
+                       COUNT(DISTINCT s.owner_id) AS owner_count,
+                       SUM(s.card_count) AS card_count, SUM(s.total_balance) AS total_balance
+                FROM card_balance_summary s
+                JOIN users u ON u.id = s.owner_id
+                WHERE s.card_count > 0
+                GROUP BY date_trunc('month', u.created_at)
+                ORDER BY date_trunc('month', u.created_at)
+                """),
+        BY_EXPIRY_MONTH("byExpiryMonth", """
+                SELECT to_char(month, 'YYYY-MM') AS key, NULL AS bucket, NULL AS owner_count,
+                       card_count, total_balance
+                FROM card_expiry_month_totals
+                ORDER BY month
+                """),
+        BALANCE_DISTRIBUTION("balanceDistribution", """
+                SELECT status AS key, bucket, NULL AS owner_count, card_count, total_balance
+                FROM card_balance_buckets
+                ORDER BY status, bucket
+                """);
+
+        private final String name;
+        private final String sql;
+
+        Aggregate(String name, String sql) {
+            this.name = name;
+            this.sql = sql;
+        }
+    }
+
+    static final List<String> VIEWS = List.of("card_expiry_month_totals", "card_balance_buckets");
+
+    private final DataSource dataSource;
+
+    @Value("${analytics.parallelism:2}")
+    private int parallelism;
+
+    @Value("${analytics.latency-budget-ms:3000}")
+    private long latencyBudgetMs;
+
+    @Value("${analytics.cache-ttl-seconds:60}")
+    private long cacheTtlSeconds;
+
+    @Value("${analytics.partial-cache-ttl-seconds:5}")
+    private long partialCacheTtlSeconds;
+
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private ThreadPoolExecutor executor;
+    private ExecutorService refresher;
+    private volatile CardAnalyticsResponse cached;
+
+    @PostConstruct
+    public void init() {
+        executor = new ThreadPoolExecutor(parallelism, parallelism, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Aggregate.values().length),
+                new CustomizableThreadFactory("card-analytics-"));
+        refresher = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("card-analytics-refresh-"));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refresher.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    public CardAnalyticsResponse getAnalytics() {
+        CardAnalyticsResponse current = cached;
+        if (current == null) {
+            return firstReport();
+        }
+        if (!isFresh(current) && refreshing.compareAndSet(false, true)) {
+            try {
+                refresher.execute(this::refresh);
+            } catch (RejectedExecutionException ex) {
+                refreshing.set(false);
+            }
+        }
+        return current;
+    }
+
+    private synchronized CardAnalyticsResponse firstReport() {
+        if (cached == null) {
+            cached = compute();
+        }
+        return cached;
+    }
+
+    void refresh() {
+        try {
+            cached = compute();
+        } catch (RuntimeException ex) {
+            log.warn("Analytics report refresh failed: {}", ex.getMessage());
+        } finally {
+            refreshing.set(false);
+        }
+    }
+
+    public void refreshViews() {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            for (String view : VIEWS) {
+                statement.execute("REFRESH MATERIALIZED VIEW CONCURRENTLY " + view);
+            }
+        } catch (SQLException ex) {
+            throw new IllegalStateException("Failed to refresh analytics views", ex);
+        }
+    }
+
+    private boolean isFresh(CardAnalyticsResponse response) {
+        if (response == null) {
+            return false;
+        }
+        long ttlSeconds = response.isComplete() ? cacheTtlSeconds : partialCacheTtlSeconds;
+        return response.getGeneratedAt().plusSeconds(ttlSeconds).isAfter(LocalDateTime.now());
+    }
+
+    private CardAnalyticsResponse compute() {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(latencyBudgetMs);
+        Map<String, List<AnalyticsRow>> aggregates = new LinkedHashMap<>();
+        List<String> timedOut = new ArrayList<>();
+
+        try (Connection snapshotHolder = openSnapshotTransaction()) {
+            String snapshot = exportSnapshot(snapshotHolder);
+
+            Map<Aggregate, Future<List<AnalyticsRow>>> futures = new EnumMap<>(Aggregate.class);
+            for (Aggregate aggregate : Aggregate.values()) {
+                try {
+                    futures.put(aggregate, executor.submit(() -> runAggregate(aggregate, snapshot, deadline)));
+                } catch (RejectedExecutionException ex) {
+                    timedOut.add(aggregate.name);
+                    log.warn("Analytics aggregate {} skipped, all workers are busy", aggregate.name);
+                }
+            }
+
+            futures.forEach((aggregate, future) -> {
+                try {
+                    aggregates.put(aggregate.name, future.get(remainingNanos(deadline), TimeUnit.NANOSECONDS));
+                } catch (TimeoutException ex) {
+                    future.cancel(true);
+                    timedOut.add(aggregate.name);
+                    log.warn("Analytics aggregate {} did not finish within {} ms", aggregate.name, latencyBudgetMs);
+                } catch (ExecutionException ex) {
+                    timedOut.add(aggregate.name);
+                    log.warn("Analytics aggregate {} failed: {}", aggregate.name, ex.getCause().getMessage());
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    timedOut.add(aggregate.name);
+                }
+            });
+            // Cancelled tasks that never started would otherwise occupy the bounded queue
+            executor.purge();
+
+            snapshotHolder.rollback();
+        } catch (SQLException ex) {
+            throw new IllegalStateException("Failed to open analytics snapshot", ex);
+        }
+
+        return CardAnalyticsResponse.builder()
+                .generatedAt(LocalDateTime.now())
+                .complete(timedOut.isEmpty())
+                .timedOut(timedOut)
+                .aggregates(aggregates)
+                .build();
+    }
+
+    Connection openSnapshotTransaction() throws SQLException {
+        Connection connection = dataSource.getConnection();
+        connection.setAutoCommit(false);
+        connection.setReadOnly(true);
+        connection.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+        return connection;
+    }
+
+    String exportSnapshot(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT pg_export_snapshot()")) {
+            resultSet.next();
+            return resultSet.getString(1);
+        }
+    }
+
+    // Future.cancel does not interrupt a running statement; the query timeouts are what stop it
+    List<AnalyticsRow> runAggregate(Aggregate aggregate, String snapshot, long deadline) throws SQLException {
+        long remainingMs = TimeUnit.NANOSECONDS.toMillis(remainingNanos(deadline));
+        if (remainingMs <= 0) {
+            throw new SQLTimeoutException("Latency budget spent before " + aggregate.name + " started");
+        }
+        try (Connection connection = openSnapshotTransaction();
+             Statement statement = connection.createStatement()) {
+            statement.setQueryTimeout((int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(remainingMs + 999)));
+            statement.execute("SET TRANSACTION SNAPSHOT '" + snapshot.replace("'", "") + "'");
+            statement.execute("SET LOCAL statement_timeout = "
+                    + Math.max(1, TimeUnit.NANOSECONDS.toMillis(remainingNanos(deadline))));
+
+            List<AnalyticsRow> rows = new ArrayList<>();
+            try (ResultSet resultSet = statement.executeQuery(aggregate.sql)) {
+                while (resultSet.next()) {
+                    long ownerCount = resultSet.getLong("owner_count");
+                    boolean noOwnerCount = resultSet.wasNull();
+                    rows.add(AnalyticsRow.builder()
+                            .key(resultSet.getString("key"))
+                            .bucket(resultSet.getBigDecimal("bucket"))
+                            .ownerCount(noOwnerCount ? null : ownerCount)
+                            .cardCount(resultSet.getLong("card_count"))
+                            .totalBalance(resultSet.getBigDecimal("total_balance"))
+                            .build());
+                }
+            }
+            connection.rollback();
+            return rows;
+        }
+    }
+
+    private static long remainingNanos(long deadline) {
+        return Math.max(0, deadline - System.nanoTime());
+    }
+}
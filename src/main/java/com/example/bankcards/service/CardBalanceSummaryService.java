@@ -0,0 +1,119 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.response.BalanceSummaryResponse;
+import com.example.bankcards.dto.response.StatusBalanceSummary;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.CardBalanceSummaryId;
+import com.example.bankcards.entity.CardStatus;
+import com.example.bankcards.repository.CardBalanceSummaryRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+@Service
+@RequiredArgsConstructor
+public class CardBalanceSummaryService {
+
+    // Every transaction upserts its rows in this order, so ones touching several rows cannot deadlock
+    private static final Comparator<CardBalanceSummaryId> LOCK_ORDER = Comparator
+            .comparing(CardBalanceSummaryId::getOwnerId)
+            .thenComparing(id -> id.getStatus().name());
+
+    private final CardBalanceSummaryRepository summaryRepository;
+
+    public record StatusChange(Card card, CardStatus previousStatus) {
+    }
+
+    private record Delta(long cardCount, BigDecimal balance) {
+
+        Delta plus(Delta other) {
+            return new Delta(cardCount + other.cardCount, balance.add(other.balance));
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public BalanceSummaryResponse getOwnerSummary(Long ownerId) {
+        return toResponse(summaryRepository.findByIdOwnerId(ownerId).stream()
+                .map(StatusBalanceSummary::fromEntity)
+                .toList());
+    }
+
+    @Transactional(readOnly = true)
+    public BalanceSummaryResponse getGlobalSummary() {
+        return toResponse(summaryRepository.sumByStatus().stream()
+                .map(totals -> new StatusBalanceSummary(totals.getStatus(), totals.getCardCount(),
+                        totals.getTotalBalance()))
+                .toList());
+    }
+
+    @Transactional
+    public void cardAdded(Card card) {
+        Map<CardBalanceSummaryId, Delta> deltas = new TreeMap<>(LOCK_ORDER);
+        add(deltas, card, card.getStatus(), 1);
+        apply(deltas);
+    }
+
+    @Transactional
+    public void cardRemoved(Card card) {
+        Map<CardBalanceSummaryId, Delta> deltas = new TreeMap<>(LOCK_ORDER);
+        add(deltas, card, card.getStatus(), -1);
+        apply(deltas);
+    }
+
+    @Transactional
+    public void statusChanged(Card card, CardStatus previousStatus) {
+        statusChanged(List.of(new StatusChange(card, previousStatus)));
+    }
+
+    @Transactional
+    public void statusChanged(Collection<StatusChange> changes) {
+        Map<CardBalanceSummaryId, Delta> deltas = new TreeMap<>(LOCK_ORDER);
+        for (StatusChange change : changes) {
+            if (change.card().getStatus() != change.previousStatus()) {
+                add(deltas, change.card(), change.previousStatus(), -1);
+                add(deltas, change.card(), change.card().getStatus(), 1);
+            }
+        }
+        apply(deltas);
+    }
+
+    @Transactional
+    public void ownerRemoved(Long ownerId) {
+        summaryRepository.deleteByOwnerId(ownerId);
+    }
+
+    private static void add(Map<CardBalanceSummaryId, Delta> deltas, Card card, CardStatus status, int sign) {
+        Delta delta = new Delta(sign, sign < 0 ? card.getBalance().negate() : card.getBalance());
+        deltas.merge(new CardBalanceSummaryId(card.getOwner().getId(), status), delta, Delta::plus);
+    }
+
+    private void apply(Map<CardBalanceSummaryId, Delta> deltas) {
+        deltas.forEach((id, delta) -> {
+            if (delta.cardCount() != 0 || delta.balance().signum() != 0) {
+                summaryRepository.add(id.getOwnerId(), id.getStatus().name(), delta.cardCount(), delta.balance());
+            }
+        });
+    }
+
+    private BalanceSummaryResponse toResponse(List<StatusBalanceSummary> summaries) {
+        List<StatusBalanceSummary> byStatus = summaries.stream()
+                .filter(summary -> summary.getCardCount() > 0)
+                .sorted(Comparator.comparing(StatusBalanceSummary::getStatus))
+                .toList();
+
+        return BalanceSummaryResponse.builder()
+                .cardCount(byStatus.stream().mapToLong(StatusBalanceSummary::getCardCount).sum())
+                .totalBalance(byStatus.stream()
+                        .map(StatusBalanceSummary::getTotalBalance)
+                        .reduce(BigDecimal.ZERO, BigDecimal::add))
+                .byStatus(byStatus)
+                .build();
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.bankcards.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CardExpiryJob {
+
+    private final CardExpiryService cardExpiryService;
+    private final SchedulerLockService schedulerLockService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${scheduler.card-expiry.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${scheduler.lock-at-most-for:PT10M}")
+    private Duration lockAtMostFor;
+
+    @Scheduled(initialDelayString = "${scheduler.initial-delay:PT30S}",
+            fixedDelayString = "${scheduler.card-expiry.interval:PT15M}")
+    public void expireCards() {
+        runChunked(CardExpiryService.EXPIRY_JOB, cardExpiryService::expireNextChunk);
+    }
+
+    @Scheduled(initialDelayString = "${scheduler.initial-delay:PT30S}",
+            fixedDelayString = "${scheduler.card-expiry.interval:PT15M}")
+    public void collectExpiryNotices() {
+        runChunked(CardExpiryService.NOTICE_JOB, cardExpiryService::collectNextNoticeChunk);
+    }
+
+    void runChunked(String job, ChunkStep step) {
+        if (!schedulerLockService.tryLock(job, lockAtMostFor)) {
+            log.debug("Job {} is running on another node", job);
+            return;
+        }
+
+        LocalDate today = LocalDate.now();
+        long total = 0;
+        try {
+            int processed;
+            do {
+                processed = step.process(today, chunkSize);
+                total += processed;
+            } while (processed == chunkSize && schedulerLockService.tryLock(job, lockAtMostFor));
+        } catch (RuntimeException ex) {
+            log.warn("Job {} stopped after {} cards, will resume from checkpoint: {}", job, total, ex.getMessage());
+        } finally {
+            schedulerLockService.unlock(job);
+        }
+
+        if (total > 0) {
+            meterRegistry.counter("scheduler.job.cards", "job", job).increment(total);
+            log.info("Job {} processed {} cards", job, total);
+        }
+    }
+
+    @FunctionalInterface
+    interface ChunkStep {
+        int process(LocalDate today, int chunkSize);
+    }
+}
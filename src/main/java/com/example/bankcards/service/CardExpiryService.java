@@ -0,0 +1,104 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.response.CardExpiryNoticeResponse;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.CardStatus;
+import com.example.bankcards.entity.JobCheckpoint;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.repository.CardExpiryNoticeRepository;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.JobCheckpointRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+public class CardExpiryService {
+
+    static final String EXPIRY_JOB = "card-expiry";
+    static final String NOTICE_JOB = "card-expiry-notices";
+
+    private final CardRepository cardRepository;
+    private final CardExpiryNoticeRepository cardExpiryNoticeRepository;
+    private final JobCheckpointRepository jobCheckpointRepository;
+    private final CardBalanceSummaryService summaryService;
+    private final UserService userService;
+
+    @Value("${scheduler.card-expiry.notice-days:30}")
+    private int noticeDays;
+
+    @Transactional(readOnly = true)
+    public List<CardExpiryNoticeResponse> getCurrentUserNotices() {
+        User currentUser = userService.getCurrentUser();
+        return cardExpiryNoticeRepository
+                .findByOwnerIdAndExpiryDateGreaterThanEqualOrderByExpiryDateAscCardIdAsc(currentUser.getId(), LocalDate.now())
+                .stream()
+                .map(CardExpiryNoticeResponse::fromEntity)
+                .toList();
+    }
+
+    // The checkpoint moves in the same transaction as the chunk
+    @Transactional
+    public int expireNextChunk(LocalDate today, int chunkSize) {
+        JobCheckpoint checkpoint = checkpointFor(EXPIRY_JOB, today);
+        if (checkpoint.isCompleted()) {
+            return 0;
+        }
+
+        List<Card> cards = cardRepository.findExpiredAfter(checkpoint.getLastId(), today, PageRequest.of(0, chunkSize));
+        List<CardBalanceSummaryService.StatusChange> changes = new ArrayList<>(cards.size());
+        for (Card card : cards) {
+            changes.add(new CardBalanceSummaryService.StatusChange(card, card.getStatus()));
+            card.setStatus(CardStatus.EXPIRED);
+        }
+        cardRepository.saveAll(cards);
+        summaryService.statusChanged(changes);
+
+        advance(checkpoint, cards.isEmpty() ? null : cards.get(cards.size() - 1).getId(), cards.size() < chunkSize);
+        return cards.size();
+    }
+
+    @Transactional
+    public int collectNextNoticeChunk(LocalDate today, int chunkSize) {
+        JobCheckpoint checkpoint = checkpointFor(NOTICE_JOB, today);
+        if (checkpoint.isCompleted()) {
+            return 0;
+        }
+
+        List<Long> cardIds = cardRepository.findIdsExpiringAfter(
+                checkpoint.getLastId(), today, today.plusDays(noticeDays), PageRequest.of(0, chunkSize));
+        if (!cardIds.isEmpty()) {
+            cardExpiryNoticeRepository.insertMissing(cardIds);
+        }
+
+        advance(checkpoint, cardIds.isEmpty() ? null : cardIds.get(cardIds.size() - 1), cardIds.size() < chunkSize);
+        return cardIds.size();
+    }
+
+    // A checkpoint left over from an earlier day is restarted from the beginning
+    private JobCheckpoint checkpointFor(String job, LocalDate runDate) {
+        JobCheckpoint checkpoint = jobCheckpointRepository.findById(job)
+                .orElseGet(() -> JobCheckpoint.builder().jobName(job).build());
+        if (!runDate.equals(checkpoint.getRunDate())) {
+            checkpoint.setRunDate(runDate);
+            checkpoint.setLastId(0L);
+            checkpoint.setCompleted(false);
+        }
+        return checkpoint;
+    }
+
+    private void advance(JobCheckpoint checkpoint, Long lastId, boolean completed) {
+        if (lastId != null) {
+            checkpoint.setLastId(lastId);
+        }
+        checkpoint.setCompleted(completed);
+        jobCheckpointRepository.save(checkpoint);
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.bankcards.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CardFingerprintJob {
+
+    private final CardFingerprintService cardFingerprintService;
+    private final SchedulerLockService schedulerLockService;
+
+    @Value("${cards.fingerprint.backfill-chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${scheduler.lock-at-most-for:PT10M}")
+    private Duration lockAtMostFor;
+
+    @Scheduled(initialDelayString = "${scheduler.initial-delay:PT30S}",
+            fixedDelayString = "${cards.fingerprint.backfill-interval:PT15M}")
+    public void backfill() {
+        String job = CardFingerprintService.BACKFILL_JOB;
+        if (!schedulerLockService.tryLock(job, lockAtMostFor)) {
+            return;
+        }
+
+        long total = 0;
+        try {
+            int processed;
+            do {
+                processed = cardFingerprintService.backfillNextChunk(chunkSize);
+                total += processed;
+            } while (processed == chunkSize && schedulerLockService.tryLock(job, lockAtMostFor));
+        } catch (RuntimeException ex) {
+            log.warn("Job {} stopped after {} cards, will resume from checkpoint: {}", job, total, ex.getMessage());
+        } finally {
+            schedulerLockService.unlock(job);
+        }
+
+        if (total > 0) {
+            log.info("Job {} processed {} cards", job, total);
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.entity.JobCheckpoint;
+import com.example.bankcards.repository.CardCiphertext;
+import com.example.bankcards.repository.CardFingerprintRepository;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.JobCheckpointRepository;
+import com.example.bankcards.util.BloomFilter;
+import com.example.bankcards.util.EncryptionUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.Base64;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CardFingerprintService {
+
+    static final String BACKFILL_JOB = "card-fingerprint-backfill";
+
+    private static final int REBUILD_FETCH_SIZE = 10_000;
+    private static final long CAPACITY_HEADROOM = 2;
+
+    private final CardFingerprintRepository cardFingerprintRepository;
+    private final CardRepository cardRepository;
+    private final JobCheckpointRepository jobCheckpointRepository;
+    private final EncryptionUtil encryptionUtil;
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${cards.fingerprint.expected-cards:1000000}")
+    private long expectedCards;
+
+    @Value("${cards.fingerprint.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    @Value("${cards.fingerprint.max-attempts:10}")
+    private int maxAttempts;
+
+    private volatile BloomFilter bloomFilter;
+    private volatile long capacity;
+    private Counter bloomHits;
+    private Counter bloomFalsePositives;
+
+    @PostConstruct
+    public void init() {
+        capacity = expectedCards;
+        bloomFilter = BloomFilter.create(capacity, falsePositiveRate);
+        Gauge.builder("cards.fingerprint.bloom.entries", this, service -> service.bloomFilter.entries())
+                .description("Card number fingerprints in the bloom filter")
+                .register(meterRegistry);
+        Gauge.builder("cards.fingerprint.bloom.capacity", this, service -> service.capacity)
+                .description("Fingerprints the bloom filter was sized for")
+                .register(meterRegistry);
+        Gauge.builder("cards.fingerprint.bloom.false-positive-rate", this,
+                        service -> service.bloomFilter.expectedFalsePositiveRate())
+                .description("Expected false positive rate at the current fill")
+                .register(meterRegistry);
+        bloomHits = Counter.builder("cards.fingerprint.bloom.hits")
+                .description("Generated card numbers the bloom filter may contain")
+                .register(meterRegistry);
+        bloomFalsePositives = Counter.builder("cards.fingerprint.bloom.false-positives")
+                .description("Bloom filter hits that the primary key lookup showed to be unused")
+                .register(meterRegistry);
+    }
+
+    // Filled in place: until the rebuild finishes, duplicates are caught only by the primary key
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Long stored = jdbcTemplate.queryForObject("SELECT count(*) FROM card_fingerprints", Long.class);
+        long required = Math.max(expectedCards, (stored == null ? 0 : stored) * CAPACITY_HEADROOM);
+        if (required > capacity) {
+            capacity = required;
+            bloomFilter = BloomFilter.create(capacity, falsePositiveRate);
+        }
+        BloomFilter filter = bloomFilter;
+        jdbcTemplate.query(connection -> {
+            var statement = connection.prepareStatement("SELECT fingerprint FROM card_fingerprints");
+            statement.setFetchSize(REBUILD_FETCH_SIZE);
+            return statement;
+        }, (RowCallbackHandler) resultSet -> filter.put(Base64.getDecoder().decode(resultSet.getString(1))));
+        long nanos = sample.stop(Timer.builder("cards.fingerprint.bloom.rebuild")
+                .description("Time to load card number fingerprints into the bloom filter")
+                .register(meterRegistry));
+        log.info("Loaded {} card fingerprints into bloom filter sized for {} in {} ms, expected false positive rate {}",
+                filter.entries(), capacity, nanos / 1_000_000, String.format("%.4f", filter.expectedFalsePositiveRate()));
+    }
+
+    public String generateUniqueCardNumber() {
+        for (int attempt = 0; attempt < maxAttempts; attempt++) {
+            String cardNumber = encryptionUtil.generateCardNumber();
+            byte[] fingerprint = encryptionUtil.fingerprint(cardNumber);
+            if (!bloomFilter.mightContain(fingerprint)) {
+                return cardNumber;
+            }
+            bloomHits.increment();
+            if (!cardFingerprintRepository.existsById(Base64.getEncoder().encodeToString(fingerprint))) {
+                bloomFalsePositives.increment();
+                return cardNumber;
+            }
+        }
+        throw new IllegalStateException("No unused card number found in " + maxAttempts + " attempts");
+    }
+
+    // ON CONFLICT rather than a caught constraint violation, which would abort the caller's transaction
+    public boolean tryRegister(Long cardId, String cardNumber) {
+        byte[] fingerprint = encryptionUtil.fingerprint(cardNumber);
+        boolean registered = cardFingerprintRepository.insertIfAbsent(
+                Base64.getEncoder().encodeToString(fingerprint), cardId) == 1;
+        bloomFilter.put(fingerprint);
+        return registered;
+    }
+
+    @Transactional
+    public int backfillNextChunk(int chunkSize) {
+        JobCheckpoint checkpoint = jobCheckpointRepository.findById(BACKFILL_JOB)
+                .orElseGet(() -> JobCheckpoint.builder().jobName(BACKFILL_JOB).runDate(LocalDate.now()).build());
+        if (checkpoint.isCompleted()) {
+            return 0;
+        }
+
+        List<CardCiphertext> rows = cardRepository.findCiphertextsWithoutFingerprintAfter(
+                checkpoint.getLastId(), PageRequest.of(0, chunkSize));
+        for (CardCiphertext row : rows) {
+            backfill(row);
+        }
+
+        if (!rows.isEmpty()) {
+            checkpoint.setLastId(rows.get(rows.size() - 1).getId());
+        }
+        checkpoint.setCompleted(rows.size() < chunkSize);
+        jobCheckpointRepository.save(checkpoint);
+        return rows.size();
+    }
+
+    private void backfill(CardCiphertext row) {
+        byte[] fingerprint;
+        try {
+            fingerprint = encryptionUtil.fingerprint(encryptionUtil.decrypt(row.getCardNumber()));
+        } catch (RuntimeException ex) {
+            log.warn("Card {} could not be fingerprinted: {}", row.getId(), ex.getMessage());
+            return;
+        }
+        if (cardFingerprintRepository.insertIfAbsent(Base64.getEncoder().encodeToString(fingerprint), row.getId()) == 0) {
+            log.warn("Card {} has the same number as an already fingerprinted card", row.getId());
+        }
+        bloomFilter.put(fingerprint);
+    }
+}
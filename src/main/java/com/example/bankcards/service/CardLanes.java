@@ -0,0 +1,70 @@
+package com.example.bankcards.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+@Component
+@Slf4j
+public class CardLanes {
+
+    private static final long GOLDEN_RATIO = 0x9E3779B97F4A7C15L;
+
+    @Value("${transfers.lanes.enabled:false}")
+    private boolean enabled;
+
+    @Value("${transfers.lanes.count:1024}")
+    private int laneCount;
+
+    private ReentrantLock[] lanes;
+    private int mask;
+
+    @PostConstruct
+    public void init() {
+        int size = Integer.highestOneBit(Math.max(1, laneCount - 1) << 1);
+        lanes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            lanes[i] = new ReentrantLock();
+        }
+        mask = size - 1;
+        if (enabled) {
+            log.info("Card lanes enabled with {} lanes", size);
+        }
+    }
+
+    public <T> T execute(Long firstCardId, Long secondCardId, Supplier<T> action) {
+        if (!enabled) {
+            return action.get();
+        }
+
+        int first = laneOf(firstCardId);
+        int second = laneOf(secondCardId);
+        // Lower lane first, so two transfers over the same pair of lanes cannot deadlock
+        ReentrantLock outer = lanes[Math.min(first, second)];
+        ReentrantLock inner = first == second ? null : lanes[Math.max(first, second)];
+
+        outer.lock();
+        try {
+            if (inner != null) {
+                inner.lock();
+            }
+            try {
+                return action.get();
+            } finally {
+                if (inner != null) {
+                    inner.unlock();
+                }
+            }
+        } finally {
+            outer.unlock();
+        }
+    }
+
+    int laneOf(Long cardId) {
+        return (int) ((cardId * GOLDEN_RATIO) >>> 32) & mask;
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.bankcards.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CardReEncryptionJob {
+
+    private final CardReEncryptionService cardReEncryptionService;
+    private final SchedulerLockService schedulerLockService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${encryption.reencryption.enabled:true}")
+    private boolean enabled;
+
+    @Value("${encryption.reencryption.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${encryption.reencryption.rows-per-second:2000}")
+    private int rowsPerSecond;
+
+    @Value("${scheduler.lock-at-most-for:PT10M}")
+    private Duration lockAtMostFor;
+
+    @Scheduled(initialDelayString = "${scheduler.initial-delay:PT30S}",
+            fixedDelayString = "${encryption.reencryption.interval:PT5M}")
+    public void reEncryptCards() {
+        if (!enabled) {
+            return;
+        }
+        String job = cardReEncryptionService.jobName();
+        if (!schedulerLockService.tryLock(job, lockAtMostFor)) {
+            log.debug("Job {} is running on another node", job);
+            return;
+        }
+
+        long total = 0;
+        try {
+            int signingKeys = cardReEncryptionService.reEncryptSigningKeys();
+            if (signingKeys > 0) {
+                log.info("Job {} re-encrypted {} JWT signing keys", job, signingKeys);
+            }
+            int processed;
+            do {
+                long started = System.nanoTime();
+                processed = cardReEncryptionService.reEncryptNextChunk(chunkSize);
+                total += processed;
+                throttle(processed, System.nanoTime() - started);
+            } while (processed == chunkSize && schedulerLockService.tryLock(job, lockAtMostFor));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException ex) {
+            log.warn("Job {} stopped after {} cards, will resume from checkpoint: {}", job, total, ex.getMessage());
+        } finally {
+            schedulerLockService.unlock(job);
+        }
+
+        if (total > 0) {
+            meterRegistry.counter("scheduler.job.cards", "job", "card-reencryption").increment(total);
+            log.info("Job {} processed {} cards", job, total);
+        }
+    }
+
+    private void throttle(int processed, long elapsedNanos) throws InterruptedException {
+        long budgetNanos = TimeUnit.SECONDS.toNanos(processed) / rowsPerSecond;
+        if (budgetNanos > elapsedNanos) {
+            TimeUnit.NANOSECONDS.sleep(budgetNanos - elapsedNanos);
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.entity.JobCheckpoint;
+import com.example.bankcards.entity.JwtSigningKey;
+import com.example.bankcards.repository.CardCiphertext;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.JobCheckpointRepository;
+import com.example.bankcards.repository.JwtSigningKeyRepository;
+import com.example.bankcards.util.EncryptionUtil;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CardReEncryptionService {
+
+    static final String JOB_PREFIX = "card-reencryption:";
+
+    // version + 1 makes a concurrent JPA update fail instead of writing the old ciphertext back
+    private static final String UPDATE_SQL =
+            "UPDATE cards SET card_number = ?, version = version + 1 WHERE owner_id = ? AND id = ? AND version = ?";
+
+    private final CardRepository cardRepository;
+    private final JobCheckpointRepository jobCheckpointRepository;
+    private final JwtSigningKeyRepository jwtSigningKeyRepository;
+    private final EncryptionUtil encryptionUtil;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${encryption.reencryption.parallelism:0}")
+    private int parallelism;
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    public void init() {
+        if (parallelism <= 0) {
+            parallelism = Runtime.getRuntime().availableProcessors();
+        }
+        executor = Executors.newFixedThreadPool(parallelism, new CustomizableThreadFactory("card-reencryption-"));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public String jobName() {
+        return JOB_PREFIX + encryptionUtil.getActiveKeyId();
+    }
+
+    // Signing keys share the keyring and must stay readable once the old key is dropped
+    @Transactional
+    public int reEncryptSigningKeys() {
+        int rewritten = 0;
+        for (JwtSigningKey key : jwtSigningKeyRepository.findNotWithKey(encryptionUtil.activeKeyPrefix() + "%")) {
+            try {
+                rewritten += jwtSigningKeyRepository.updatePrivateKey(
+                        key.getId(), key.getPrivateKey(), encryptionUtil.reEncrypt(key.getPrivateKey()));
+            } catch (RuntimeException ex) {
+                log.warn("JWT signing key {} could not be re-encrypted: {}", key.getKid(), ex.getMessage());
+            }
+        }
+        return rewritten;
+    }
+
+    @Transactional
+    public int reEncryptNextChunk(int chunkSize) {
+        String jobName = jobName();
+        String keyPrefix = encryptionUtil.activeKeyPrefix() + "%";
+        JobCheckpoint checkpoint = jobCheckpointRepository.findById(jobName).orElseGet(() -> newPass(jobName));
+        if (checkpoint.isCompleted()) {
+            return 0;
+        }
+
+        List<CardCiphertext> rows = cardRepository.findCiphertextsNotWithKeyAfter(
+                checkpoint.getLastId(), keyPrefix, PageRequest.of(0, chunkSize));
+        List<String> reEncrypted = reEncryptAll(rows);
+
+        List<Object[]> updates = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            CardCiphertext row = rows.get(i);
+            if (reEncrypted.get(i) != null) {
+                updates.add(new Object[]{reEncrypted.get(i), row.getOwnerId(), row.getId(), row.getVersion()});
+            }
+        }
+        int[][] counts = jdbcTemplate.batchUpdate(UPDATE_SQL, updates, updates.size(),
+                (statement, args) -> {
+                    for (int i = 0; i < args.length; i++) {
+                        statement.setObject(i + 1, args[i]);
+                    }
+                });
+
+        // A row changed since it was read is retried: the next chunk starts just before it
+        Long retryFrom = null;
+        int index = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                Long id = (Long) updates.get(index++)[2];
+                if (count == 0 && retryFrom == null) {
+                    retryFrom = id - 1;
+                }
+            }
+        }
+
+        if (!rows.isEmpty()) {
+            checkpoint.setLastId(retryFrom != null ? retryFrom : rows.get(rows.size() - 1).getId());
+        }
+        if (rows.size() < chunkSize && retryFrom == null) {
+            finishPass(checkpoint, keyPrefix);
+        }
+        jobCheckpointRepository.save(checkpoint);
+        return rows.size();
+    }
+
+    private JobCheckpoint newPass(String jobName) {
+        jobCheckpointRepository.deleteOthersWithPrefix(JOB_PREFIX + "%", jobName);
+        return JobCheckpoint.builder().jobName(jobName).runDate(LocalDate.now()).build();
+    }
+
+    private void finishPass(JobCheckpoint checkpoint, String keyPrefix) {
+        long remaining = cardRepository.countNotWithKey(keyPrefix);
+        if (remaining == 0) {
+            checkpoint.setCompleted(true);
+            return;
+        }
+        log.error("Re-encryption to key {} left {} cards under other keys, keep the old keys in ENCRYPTION_KEYS",
+                encryptionUtil.getActiveKeyId(), remaining);
+        checkpoint.setLastId(0);
+    }
+
+    private List<String> reEncryptAll(List<CardCiphertext> rows) {
+        int slices = Math.min(parallelism, rows.size());
+        List<Future<List<String>>> futures = new ArrayList<>(slices);
+        for (int slice = 0; slice < slices; slice++) {
+            List<CardCiphertext> part = rows.subList(
+                    slice * rows.size() / slices, (slice + 1) * rows.size() / slices);
+            futures.add(executor.submit(() -> part.stream().map(this::reEncryptOrNull).toList()));
+        }
+
+        List<String> result = new ArrayList<>(rows.size());
+        try {
+            for (Future<List<String>> future : futures) {
+                result.addAll(future.get());
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Re-encryption interrupted", ex);
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException("Re-encryption failed", ex.getCause());
+        }
+        return result;
+    }
+
+    private String reEncryptOrNull(CardCiphertext row) {
+        try {
+            return encryptionUtil.reEncrypt(row.getCardNumber());
+        } catch (RuntimeException ex) {
+            log.error("Card {} could not be re-encrypted: {}", row.getId(), ex.getMessage());
+            return null;
+        }
+    }
+}
@@ -1,16 +1,18 @@
 package com.example.bankcards.service;
 
+import com.example.bankcards.dto.request.BatchTransferMode;
+import com.example.bankcards.dto.request.BatchTransferRequest;
 import com.example.bankcards.dto.request.CreateCardRequest;
 import com.example.bankcards.dto.request.TransferRequest;
-import com.example.bankcards.dto.response.BalanceResponse;
-import com.example.bankcards.dto.response.CardResponse;
-import com.example.bankcards.dto.response.TransferResponse;
+import com.example.bankcards.dto.response.*;
 import com.example.bankcards.entity.Card;
 import com.example.bankcards.entity.CardStatus;
 import com.example.bankcards.entity.User;
 import com.example.bankcards.exception.*;
+import com.example.bankcards.repository.CardExpiryNoticeRepository;
 import com.example.bankcards.repository.CardRepository;
 import com.example.bankcards.repository.CardSpecification;
+import com.example.bankcards.repository.CardVersion;
 import com.example.bankcards.util.EncryptionUtil;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -20,21 +22,26 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.time.LocalDate;
+import java.util.*;
 
 @Service
 @RequiredArgsConstructor
 public class CardService {
 
+    private static final int MAX_NUMBER_CLAIMS = 3;
+
     private final CardRepository cardRepository;
+    private final CardExpiryNoticeRepository cardExpiryNoticeRepository;
     private final UserService userService;
     private final EncryptionUtil encryptionUtil;
+    private final CardBalanceSummaryService summaryService;
+    private final CardFingerprintService fingerprintService;
 
     @Transactional
     public CardResponse createCard(CreateCardRequest request) {
         User owner = userService.getUserEntityById(request.getOwnerId());
 
-        String cardNumber = encryptionUtil.generateCardNumber();
+        String cardNumber = fingerprintService.generateUniqueCardNumber();
         String encryptedNumber = encryptionUtil.encrypt(cardNumber);
 
         Card card = Card.builder()
@@ -46,6 +53,14 @@ public class CardService {
                 .build();
 
         card = cardRepository.save(card);
+        for (int attempt = 1; !fingerprintService.tryRegister(card.getId(), cardNumber); attempt++) {
+            if (attempt == MAX_NUMBER_CLAIMS) {
+                throw new IllegalStateException("Card number already taken in " + attempt + " attempts");
+            }
+            cardNumber = fingerprintService.generateUniqueCardNumber();
+            card.setCardNumber(encryptionUtil.encrypt(cardNumber));
+        }
+        summaryService.cardAdded(card);
 
         String maskedNumber = encryptionUtil.maskCardNumber(cardNumber);
         return CardResponse.fromEntity(card, maskedNumber);
@@ -71,6 +86,16 @@ public class CardService {
                 .map(this::toCardResponse);
     }
 
+    @Transactional(readOnly = true)
+    public BalanceSummaryResponse getCurrentUserSummary() {
+        return summaryService.getOwnerSummary(userService.getCurrentUser().getId());
+    }
+
+    @Transactional(readOnly = true)
+    public BalanceSummaryResponse getGlobalSummary() {
+        return summaryService.getGlobalSummary();
+    }
+
     @Transactional(readOnly = true)
     public CardResponse getCardById(Long id) {
         Card card = findCardById(id);
@@ -83,6 +108,19 @@ public class CardService {
         return toCardResponse(card);
     }
 
+    @Transactional(readOnly = true)
+    public long getCardVersion(Long id) {
+        CardVersion cardVersion = cardRepository.findVersionById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Card", "id", id));
+        User currentUser = userService.getCurrentUser();
+
+        if (!isAdmin(currentUser) && !cardVersion.getOwnerId().equals(currentUser.getId())) {
+            throw new AccessDeniedException("You don't have access to this card");
+        }
+
+        return cardVersion.getVersion();
+    }
+
     @Transactional
     public CardResponse blockCard(Long id) {
         Card card = findCardById(id);
@@ -91,8 +129,11 @@ public class CardService {
             throw new BadRequestException("Card is already blocked");
         }
 
+        CardStatus previousStatus = card.getStatus();
         card.setStatus(CardStatus.BLOCKED);
         card = cardRepository.save(card);
+        summaryService.statusChanged(card, previousStatus);
+        cardExpiryNoticeRepository.deleteByCardId(card.getId());
 
         return toCardResponse(card);
     }
@@ -109,8 +150,10 @@ public class CardService {
             throw new BadRequestException("Card is already active");
         }
 
+        CardStatus previousStatus = card.getStatus();
         card.setStatus(CardStatus.ACTIVE);
         card = cardRepository.save(card);
+        summaryService.statusChanged(card, previousStatus);
 
         return toCardResponse(card);
     }
@@ -118,6 +161,8 @@ public class CardService {
     @Transactional
     public void deleteCard(Long id) {
         Card card = findCardById(id);
+        summaryService.cardRemoved(card);
+        cardExpiryNoticeRepository.deleteByCardId(card.getId());
         cardRepository.delete(card);
     }
 
@@ -134,16 +179,21 @@ public class CardService {
             throw new BadRequestException("Card is already blocked");
         }
 
+        CardStatus previousStatus = card.getStatus();
         card.setStatus(CardStatus.BLOCKED);
         card = cardRepository.save(card);
+        summaryService.statusChanged(card, previousStatus);
+        cardExpiryNoticeRepository.deleteByCardId(card.getId());
 
         return toCardResponse(card);
     }
 
     @Transactional
     public TransferResponse transfer(TransferRequest request) {
-        User currentUser = userService.getCurrentUser();
+        return transferAs(userService.getCurrentUser(), request);
+    }
 
+    public TransferResponse transferAs(User currentUser, TransferRequest request) {
         if (request.getFromCardId().equals(request.getToCardId())) {
             throw new BadRequestException("Cannot transfer to the same card");
         }
@@ -151,20 +201,7 @@ public class CardService {
         Card fromCard = findCardById(request.getFromCardId());
         Card toCard = findCardById(request.getToCardId());
 
-        if (!fromCard.getOwner().getId().equals(currentUser.getId())) {
-            throw new AccessDeniedException("You can only transfer from your own cards");
-        }
-
-        if (!toCard.getOwner().getId().equals(currentUser.getId())) {
-            throw new AccessDeniedException("You can only transfer to your own cards");
-        }
-
-        validateCardForTransfer(fromCard, "Source");
-        validateCardForTransfer(toCard, "Destination");
-
-        if (fromCard.getBalance().compareTo(request.getAmount()) < 0) {
-            throw new InsufficientFundsException("Insufficient funds on the source card");
-        }
+        validateTransfer(currentUser, fromCard, toCard, request.getAmount(), fromCard.getBalance());
 
         fromCard.setBalance(fromCard.getBalance().subtract(request.getAmount()));
         toCard.setBalance(toCard.getBalance().add(request.getAmount()));
@@ -182,6 +219,94 @@ public class CardService {
                 .build();
     }
 
+    @Transactional
+    public BatchTransferResponse batchTransfer(BatchTransferRequest request) {
+        User currentUser = userService.getCurrentUser();
+        List<TransferRequest> transfers = request.getTransfers();
+
+        Set<Long> cardIds = cardIds(transfers);
+        Map<Long, Card> cards = byId(cardRepository.findAllByOwnerIdAndIdInForUpdate(
+                currentUser.getId(), cardIds));
+        // Other users' cards are read without a lock so their legs fail with 403 rather than "not found"
+        Set<Long> notOwned = new TreeSet<>(cardIds);
+        notOwned.removeAll(cards.keySet());
+        if (!notOwned.isEmpty()) {
+            cardRepository.findAllById(notOwned).forEach(card -> cards.put(card.getId(), card));
+        }
+
+        Map<Long, BigDecimal> balances = new HashMap<>();
+        List<TransferLegResult> results = new ArrayList<>(transfers.size());
+        int failed = 0;
+
+        for (int i = 0; i < transfers.size(); i++) {
+            TransferRequest transfer = transfers.get(i);
+            TransferLegResult result = TransferLegResult.builder()
+                    .index(i)
+                    .fromCardId(transfer.getFromCardId())
+                    .toCardId(transfer.getToCardId())
+                    .amount(transfer.getAmount())
+                    .build();
+            try {
+                applyTransferLeg(currentUser, transfer, cards, balances);
+                result.setStatus(TransferLegStatus.COMPLETED);
+                result.setFromCardNewBalance(balances.get(transfer.getFromCardId()));
+                result.setToCardNewBalance(balances.get(transfer.getToCardId()));
+            } catch (BusinessException ex) {
+                failed++;
+                result.setStatus(TransferLegStatus.FAILED);
+                result.setError(ex.getMessage());
+            }
+            results.add(result);
+        }
+
+        boolean committed = failed == 0 || request.getMode() == BatchTransferMode.BEST_EFFORT;
+        if (committed) {
+            balances.forEach((cardId, balance) -> cards.get(cardId).setBalance(balance));
+        } else {
+            results.stream()
+                    .filter(result -> result.getStatus() == TransferLegStatus.COMPLETED)
+                    .forEach(result -> {
+                        result.setStatus(TransferLegStatus.NOT_APPLIED);
+                        result.setFromCardNewBalance(null);
+                        result.setToCardNewBalance(null);
+                    });
+        }
+
+        return BatchTransferResponse.builder()
+                .mode(request.getMode())
+                .committed(committed)
+                .completed(committed ? transfers.size() - failed : 0)
+                .failed(failed)
+                .results(results)
+                .build();
+    }
+
+    @Transactional
+    public void transferGroup(List<GroupedTransfer> transfers) {
+        Map<Long, Card> cards = byId(cardRepository.findAllByIdInForUpdate(
+                cardIds(transfers.stream().map(GroupedTransfer::getRequest).toList())));
+        Map<Long, BigDecimal> balances = new HashMap<>();
+
+        for (GroupedTransfer transfer : transfers) {
+            TransferRequest request = transfer.getRequest();
+            try {
+                applyTransferLeg(transfer.getUser(), request, cards, balances);
+                transfer.setResponse(TransferResponse.builder()
+                        .message("Transfer completed successfully")
+                        .fromCardId(request.getFromCardId())
+                        .toCardId(request.getToCardId())
+                        .amount(request.getAmount())
+                        .fromCardNewBalance(balances.get(request.getFromCardId()))
+                        .toCardNewBalance(balances.get(request.getToCardId()))
+                        .build());
+            } catch (BusinessException ex) {
+                transfer.setError(ex);
+            }
+        }
+
+        balances.forEach((cardId, balance) -> cards.get(cardId).setBalance(balance));
+    }
+
     @Transactional(readOnly = true)
     public BalanceResponse getBalance(Long cardId) {
         User currentUser = userService.getCurrentUser();
@@ -201,16 +326,6 @@ public class CardService {
                 .build();
     }
 
-    @Transactional
-    public void updateExpiredCards() {
-        cardRepository.findAll().forEach(card -> {
-            if (card.getExpiryDate().isBefore(LocalDate.now()) && card.getStatus() != CardStatus.EXPIRED) {
-                card.setStatus(CardStatus.EXPIRED);
-                cardRepository.save(card);
-            }
-        });
-    }
-
     private Card findCardById(Long id) {
         return cardRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Card", "id", id));
@@ -222,6 +337,64 @@ public class CardService {
         return CardResponse.fromEntity(card, maskedNumber);
     }
 
+    private void applyTransferLeg(User currentUser, TransferRequest transfer,
+                                  Map<Long, Card> cards, Map<Long, BigDecimal> balances) {
+        if (transfer.getFromCardId().equals(transfer.getToCardId())) {
+            throw new BadRequestException("Cannot transfer to the same card");
+        }
+
+        Card fromCard = lockedCard(cards, transfer.getFromCardId());
+        Card toCard = lockedCard(cards, transfer.getToCardId());
+        BigDecimal fromBalance = balances.getOrDefault(fromCard.getId(), fromCard.getBalance());
+        BigDecimal toBalance = balances.getOrDefault(toCard.getId(), toCard.getBalance());
+
+        validateTransfer(currentUser, fromCard, toCard, transfer.getAmount(), fromBalance);
+
+        balances.put(fromCard.getId(), fromBalance.subtract(transfer.getAmount()));
+        balances.put(toCard.getId(), toBalance.add(transfer.getAmount()));
+    }
+
+    private static Set<Long> cardIds(Collection<TransferRequest> transfers) {
+        Set<Long> cardIds = new TreeSet<>();
+        transfers.forEach(transfer -> {
+            cardIds.add(transfer.getFromCardId());
+            cardIds.add(transfer.getToCardId());
+        });
+        return cardIds;
+    }
+
+    private static Map<Long, Card> byId(List<Card> cards) {
+        Map<Long, Card> byId = new HashMap<>();
+        cards.forEach(card -> byId.put(card.getId(), card));
+        return byId;
+    }
+
+    private Card lockedCard(Map<Long, Card> cards, Long id) {
+        Card card = cards.get(id);
+        if (card == null) {
+            throw new ResourceNotFoundException("Card", "id", id);
+        }
+        return card;
+    }
+
+    private void validateTransfer(User currentUser, Card fromCard, Card toCard,
+                                  BigDecimal amount, BigDecimal availableBalance) {
+        if (!fromCard.getOwner().getId().equals(currentUser.getId())) {
+            throw new AccessDeniedException("You can only transfer from your own cards");
+        }
+
+        if (!toCard.getOwner().getId().equals(currentUser.getId())) {
+            throw new AccessDeniedException("You can only transfer to your own cards");
+        }
+
+        validateCardForTransfer(fromCard, "Source");
+        validateCardForTransfer(toCard, "Destination");
+
+        if (availableBalance.compareTo(amount) < 0) {
+            throw new InsufficientFundsException("Insufficient funds on the source card");
+        }
+    }
+
     private void validateCardForTransfer(Card card, String cardType) {
         if (!card.isActive()) {
             if (card.isExpired()) {
@@ -0,0 +1,42 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.request.TransferRequest;
+import com.example.bankcards.dto.response.TransferResponse;
+import com.example.bankcards.entity.User;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Getter
+@Setter
+@RequiredArgsConstructor
+public class GroupedTransfer {
+
+    private final User user;
+    private final TransferRequest request;
+    private final CompletableFuture<TransferResponse> result = new CompletableFuture<>();
+    private final AtomicBoolean claimed = new AtomicBoolean();
+
+    private TransferResponse response;
+    private RuntimeException error;
+
+    // Won by either the flusher or whoever abandons the transfer, never both
+    boolean claim() {
+        return claimed.compareAndSet(false, true);
+    }
+
+    void complete() {
+        if (error != null) {
+            result.completeExceptionally(error);
+        } else {
+            result.complete(response);
+        }
+    }
+
+    void fail(RuntimeException ex) {
+        result.completeExceptionally(ex);
+    }
+}
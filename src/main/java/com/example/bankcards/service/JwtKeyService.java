@@ -0,0 +1,253 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.entity.JwtSigningKey;
+import com.example.bankcards.repository.JwtSigningKeyRepository;
+import com.example.bankcards.util.EncryptionUtil;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigInteger;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class JwtKeyService {
+
+    private static final int COORDINATE_BYTES = 32;
+
+    private final JwtSigningKeyRepository jwtSigningKeyRepository;
+    private final EncryptionUtil encryptionUtil;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${jwt.expiration}")
+    private long jwtExpiration;
+
+    @Value("${jwt.keys.rotation-interval:P7D}")
+    private Duration rotationInterval;
+
+    // Must exceed the refresh interval and the JWKS max-age
+    @Value("${jwt.keys.publish-ahead:PT10M}")
+    private Duration publishAhead;
+
+    // A token with an unknown kid reloads the keys at most this often, so random kids cannot hammer the database
+    @Value("${jwt.keys.unknown-kid-reload-interval:PT5S}")
+    private Duration unknownKidReloadInterval;
+
+    private volatile KeySet keySet = new KeySet(List.of(), Map.of());
+    private long lastLoadNanos;
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class SigningKey {
+        private final String kid;
+        private final PrivateKey privateKey;
+        private final LocalDateTime activeFrom;
+    }
+
+    // Signers are ordered newest first and include a published successor that is not active yet
+    @RequiredArgsConstructor
+    private static class KeySet {
+        private final List<SigningKey> signers;
+        private final Map<String, ECPublicKey> publicKeys;
+    }
+
+    @PostConstruct
+    public void init() {
+        Gauge.builder("security.jwt.keys", this, service -> service.keySet.publicKeys.size())
+                .description("Public keys currently accepted for access token verification")
+                .register(meterRegistry);
+    }
+
+    public SigningKey signingKey() {
+        SigningKey signingKey = activeSigner(keySet, LocalDateTime.now());
+        if (signingKey == null) {
+            refresh();
+            signingKey = activeSigner(keySet, LocalDateTime.now());
+        }
+        if (signingKey == null) {
+            throw new IllegalStateException("No JWT signing key is available");
+        }
+        return signingKey;
+    }
+
+    public ECPublicKey publicKey(String kid) {
+        if (kid == null) {
+            return null;
+        }
+        ECPublicKey publicKey = keySet.publicKeys.get(kid);
+        if (publicKey == null) {
+            synchronized (this) {
+                if (System.nanoTime() - lastLoadNanos >= unknownKidReloadInterval.toNanos()) {
+                    load(LocalDateTime.now());
+                }
+            }
+            publicKey = keySet.publicKeys.get(kid);
+        }
+        return publicKey;
+    }
+
+    public List<Map<String, Object>> jwks() {
+        List<Map<String, Object>> jwks = new ArrayList<>();
+        keySet.publicKeys.forEach((kid, publicKey) -> jwks.add(toJwk(kid, publicKey)));
+        return jwks;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${jwt.keys.refresh-interval:PT1M}",
+            fixedDelayString = "${jwt.keys.refresh-interval:PT1M}")
+    public void refresh() {
+        refresh(LocalDateTime.now());
+    }
+
+    synchronized void refresh(LocalDateTime now) {
+        List<JwtSigningKey> rows = jwtSigningKeyRepository.findAllByOrderByGenerationAsc();
+        JwtSigningKey newest = rows.isEmpty() ? null : rows.get(rows.size() - 1);
+        if (newest == null) {
+            create(1, now);
+        } else if (!newest.getActiveFrom().plus(rotationInterval).isAfter(now.plus(publishAhead))) {
+            create(newest.getGeneration() + 1, now.plus(publishAhead));
+        }
+        load(now);
+    }
+
+    private void create(int generation, LocalDateTime activeFrom) {
+        KeyPair keyPair = generateKeyPair();
+        JwtSigningKey key = JwtSigningKey.builder()
+                .kid(UUID.randomUUID().toString())
+                .generation(generation)
+                .publicKey(Base64.getEncoder().encodeToString(keyPair.getPublic().getEncoded()))
+                .privateKey(encryptionUtil.encrypt(
+                        Base64.getEncoder().encodeToString(keyPair.getPrivate().getEncoded())))
+                .activeFrom(activeFrom)
+                .build();
+        try {
+            jwtSigningKeyRepository.saveAndFlush(key);
+            log.info("Created JWT signing key {} (generation {}), active from {}", key.getKid(), generation, activeFrom);
+        } catch (DataIntegrityViolationException e) {
+            log.debug("JWT signing key generation {} was created by another node", generation);
+        }
+    }
+
+    // A key stops verifying once every token it signed has expired: its successor became active more
+    // than a token lifetime ago. Such keys are deleted
+    private synchronized void load(LocalDateTime now) {
+        List<JwtSigningKey> rows = jwtSigningKeyRepository.findAllByOrderByGenerationAsc();
+        Map<String, SigningKey> previousSigners = new HashMap<>();
+        for (SigningKey signer : keySet.signers) {
+            previousSigners.put(signer.getKid(), signer);
+        }
+
+        List<SigningKey> signers = new ArrayList<>();
+        Map<String, ECPublicKey> publicKeys = new LinkedHashMap<>();
+        int firstLive = Integer.MAX_VALUE;
+        for (int i = 0; i < rows.size(); i++) {
+            JwtSigningKey row = rows.get(i);
+            JwtSigningKey successor = i + 1 < rows.size() ? rows.get(i + 1) : null;
+            LocalDateTime retiredAt = successor == null ? null
+                    : successor.getActiveFrom().plus(Duration.ofMillis(jwtExpiration)).plus(publishAhead);
+            if (retiredAt != null && retiredAt.isBefore(now)) {
+                continue;
+            }
+            firstLive = Math.min(firstLive, row.getGeneration());
+            publicKeys.put(row.getKid(), decodePublicKey(row.getPublicKey()));
+            if (successor == null || successor.getActiveFrom().isAfter(now)) {
+                SigningKey signer = previousSigners.get(row.getKid());
+                signers.add(0, signer != null ? signer : new SigningKey(row.getKid(),
+                        decodePrivateKey(encryptionUtil.decrypt(row.getPrivateKey())), row.getActiveFrom()));
+            }
+        }
+
+        keySet = new KeySet(signers, publicKeys);
+        lastLoadNanos = System.nanoTime();
+        if (firstLive != Integer.MAX_VALUE && rows.get(0).getGeneration() < firstLive) {
+            int deleted = jwtSigningKeyRepository.deleteOlderThan(firstLive);
+            log.info("Deleted {} retired JWT signing keys", deleted);
+        }
+    }
+
+    private static SigningKey activeSigner(KeySet keySet, LocalDateTime now) {
+        for (SigningKey signer : keySet.signers) {
+            if (!signer.getActiveFrom().isAfter(now)) {
+                return signer;
+            }
+        }
+        return null;
+    }
+
+    private static KeyPair generateKeyPair() {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+            generator.initialize(new ECGenParameterSpec("secp256r1"));
+            return generator.generateKeyPair();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("EC P-256 is not available", e);
+        }
+    }
+
+    private static ECPublicKey decodePublicKey(String encoded) {
+        try {
+            return (ECPublicKey) KeyFactory.getInstance("EC")
+                    .generatePublic(new X509EncodedKeySpec(Base64.getDecoder().decode(encoded)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Invalid JWT public key", e);
+        }
+    }
+
+    private static PrivateKey decodePrivateKey(String encoded) {
+        try {
+            return KeyFactory.getInstance("EC")
+                    .generatePrivate(new PKCS8EncodedKeySpec(Base64.getDecoder().decode(encoded)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Invalid JWT private key", e);
+        }
+    }
+
+    private static Map<String, Object> toJwk(String kid, ECPublicKey publicKey) {
+        Map<String, Object> jwk = new LinkedHashMap<>();
+        jwk.put("kty", "EC");
+        jwk.put("crv", "P-256");
+        jwk.put("kid", kid);
+        jwk.put("use", "sig");
+        jwk.put("alg", "ES256");
+        jwk.put("x", coordinate(publicKey.getW().getAffineX()));
+        jwk.put("y", coordinate(publicKey.getW().getAffineY()));
+        return jwk;
+    }
+
+    // JWK coordinates are fixed-length unsigned big-endian, BigInteger bytes are signed and unpadded
+    private static String coordinate(BigInteger value) {
+        byte[] bytes = value.toByteArray();
+        byte[] padded = new byte[COORDINATE_BYTES];
+        int length = Math.min(bytes.length, COORDINATE_BYTES);
+        System.arraycopy(bytes, bytes.length - length, padded, COORDINATE_BYTES - length, length);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(padded);
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.entity.RefreshToken;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.exception.InvalidTokenException;
+import com.example.bankcards.repository.RefreshTokenRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+// Opaque refresh tokens: the client holds 32 random bytes, the table holds their HMAC, so renewing
+// costs one indexed lookup and an HMAC instead of a BCrypt comparison
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RefreshTokenService {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final int TOKEN_BYTES = 32;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final MeterRegistry meterRegistry;
+
+    private static final int MIN_HASH_KEY_BYTES = 32;
+
+    // HMAC key for stored refresh tokens, required
+    @Value("${jwt.refresh.hash-key:}")
+    private String hashKey = "";
+
+    @Value("${jwt.refresh.expiration:P14D}")
+    private Duration expiration;
+
+    private ThreadLocal<Mac> hashMac;
+    private Counter rotated;
+    private Counter reuseDetected;
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class Rotation {
+        private final User user;
+        private final String refreshToken;
+    }
+
+    @PostConstruct
+    public void init() {
+        byte[] keyBytes = hashKey.getBytes(StandardCharsets.UTF_8);
+        if (keyBytes.length < MIN_HASH_KEY_BYTES) {
+            throw new IllegalStateException("jwt.refresh.hash-key must be set to at least " + MIN_HASH_KEY_BYTES + " bytes");
+        }
+        SecretKeySpec key = new SecretKeySpec(keyBytes, "HmacSHA256");
+        hashMac = ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance("HmacSHA256");
+                mac.init(key);
+                return mac;
+            } catch (Exception e) {
+                throw new IllegalStateException("HmacSHA256 is not available", e);
+            }
+        });
+        rotated = Counter.builder("auth.refresh.rotated")
+                .description("Refresh tokens exchanged for a new token pair")
+                .register(meterRegistry);
+        reuseDetected = Counter.builder("auth.refresh.reuse-detected")
+                .description("Already used refresh tokens presented again; their family is revoked")
+                .register(meterRegistry);
+    }
+
+    @Transactional
+    public String issue(User user) {
+        return create(user, UUID.randomUUID().toString());
+    }
+
+    // A used token coming back means it was copied: whoever holds the newer token of the family may be
+    // the thief, so the whole family is revoked and both sides have to log in again
+    @Transactional(noRollbackFor = InvalidTokenException.class)
+    public Rotation rotate(String refreshToken) {
+        RefreshToken token = refreshTokenRepository.findByTokenHashForUpdate(hash(refreshToken))
+                .orElseThrow(() -> new InvalidTokenException("Refresh token is invalid"));
+
+        if (token.isRevoked() || token.getExpiresAt().isBefore(LocalDateTime.now())) {
+            throw new InvalidTokenException("Refresh token is expired or revoked");
+        }
+        if (token.getUsedAt() != null) {
+            refreshTokenRepository.revokeFamily(token.getFamilyId());
+            reuseDetected.increment();
+            log.warn("Refresh token reuse detected for user {}, family {} revoked",
+                    token.getUser().getId(), token.getFamilyId());
+            throw new InvalidTokenException("Refresh token has already been used");
+        }
+
+        token.setUsedAt(LocalDateTime.now());
+        rotated.increment();
+        return new Rotation(token.getUser(), create(token.getUser(), token.getFamilyId()));
+    }
+
+    @Transactional
+    public void revoke(String refreshToken) {
+        refreshTokenRepository.findByTokenHash(hash(refreshToken))
+                .ifPresent(token -> refreshTokenRepository.revokeFamily(token.getFamilyId()));
+    }
+
+    @Scheduled(initialDelayString = "${scheduler.initial-delay:PT30S}",
+            fixedDelayString = "${jwt.refresh.purge-interval:PT1H}")
+    @Transactional
+    public void purgeExpired() {
+        int purged = refreshTokenRepository.deleteExpired(LocalDateTime.now());
+        if (purged > 0) {
+            log.info("Purged {} expired refresh tokens", purged);
+        }
+    }
+
+    String hash(String refreshToken) {
+        return Base64.getEncoder().encodeToString(
+                hashMac.get().doFinal(refreshToken.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private String create(User user, String familyId) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        RANDOM.nextBytes(bytes);
+        String refreshToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        refreshTokenRepository.save(RefreshToken.builder()
+                .tokenHash(hash(refreshToken))
+                .user(user)
+                .familyId(familyId)
+                .expiresAt(LocalDateTime.now().plus(expiration))
+                .build());
+        return refreshToken;
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.repository.SchedulerLockRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+@Service
+@RequiredArgsConstructor
+public class SchedulerLockService {
+
+    private final SchedulerLockRepository schedulerLockRepository;
+
+    // pid@hostname, unique per running instance
+    private final String node = ManagementFactory.getRuntimeMXBean().getName();
+
+    @Transactional
+    public boolean tryLock(String name, Duration lockAtMostFor) {
+        LocalDateTime now = LocalDateTime.now();
+        return schedulerLockRepository.acquire(name, now.plus(lockAtMostFor), now, node) > 0;
+    }
+
+    @Transactional
+    public void unlock(String name) {
+        schedulerLockRepository.release(name, LocalDateTime.now(), node);
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.entity.TokenRevocation;
+import com.example.bankcards.repository.TokenRevocationRepository;
+import com.example.bankcards.util.BloomFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TokenRevocationService {
+
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final TokenRevocationRepository tokenRevocationRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${jwt.expiration}")
+    private long jwtExpiration;
+
+    @Value("${jwt.revocation.expected-revocations:100000}")
+    private long expectedRevocations;
+
+    @Value("${jwt.revocation.false-positive-rate:0.001}")
+    private double falsePositiveRate;
+
+    // Re-read window for rows whose created_at lags their commit
+    @Value("${jwt.revocation.poll-overlap:PT10S}")
+    private Duration pollOverlap;
+
+    private volatile BloomFilter revokedTokens;
+    private volatile Map<String, LocalDateTime> revokedSubjects = new ConcurrentHashMap<>();
+    private LocalDateTime watermark = EPOCH;
+    private Counter filterHits;
+    private Counter rejected;
+
+    @PostConstruct
+    public void init() {
+        revokedTokens = BloomFilter.create(expectedRevocations, falsePositiveRate);
+        Gauge.builder("security.jwt.revocation.entries", this, service -> service.revokedTokens.entries())
+                .description("Revoked token ids in the bloom filter")
+                .register(meterRegistry);
+        filterHits = Counter.builder("security.jwt.revocation.filter-hits")
+                .description("Token ids that hit the revocation bloom filter and were checked in the database")
+                .register(meterRegistry);
+        rejected = Counter.builder("security.jwt.revocation.rejected")
+                .description("Requests carrying a revoked token")
+                .register(meterRegistry);
+    }
+
+    public boolean isRevoked(String jti, String subject, LocalDateTime issuedAt) {
+        LocalDateTime cutoff = revokedSubjects.get(subject);
+        if (cutoff != null && issuedAt != null && !issuedAt.isAfter(cutoff)) {
+            rejected.increment();
+            return true;
+        }
+        if (jti == null || !revokedTokens.mightContain(key(jti))) {
+            return false;
+        }
+        filterHits.increment();
+        if (tokenRevocationRepository.existsByJti(jti)) {
+            rejected.increment();
+            return true;
+        }
+        return false;
+    }
+
+    @Transactional
+    public void revokeToken(String jti, LocalDateTime expiresAt) {
+        tokenRevocationRepository.insertIfAbsent(jti, expiresAt);
+        afterCommit(() -> revokedTokens.put(key(jti)));
+    }
+
+    // Tokens are issued with second precision, so everything issued up to the current second is revoked
+    @Transactional
+    public void revokeSubject(String subject) {
+        LocalDateTime now = LocalDateTime.now();
+        TokenRevocation revocation = tokenRevocationRepository.save(TokenRevocation.builder()
+                .subject(subject)
+                .issuedBefore(now)
+                .expiresAt(now.plus(Duration.ofMillis(jwtExpiration)))
+                .build());
+        afterCommit(() -> revokedSubjects.merge(subject, revocation.getIssuedBefore(), this::later));
+    }
+
+    @Scheduled(initialDelayString = "${jwt.revocation.poll-interval:PT1S}",
+            fixedDelayString = "${jwt.revocation.poll-interval:PT1S}")
+    @Transactional(readOnly = true)
+    public synchronized void poll() {
+        List<TokenRevocation> revocations = tokenRevocationRepository
+                .findByCreatedAtGreaterThanOrderByCreatedAtAsc(watermark.minus(pollOverlap));
+        for (TokenRevocation revocation : revocations) {
+            apply(revocation, revokedTokens, revokedSubjects);
+        }
+    }
+
+    // A bloom filter cannot forget, so it is rebuilt from the rows whose tokens have not expired yet
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${jwt.revocation.rebuild-interval:PT15M}",
+            fixedDelayString = "${jwt.revocation.rebuild-interval:PT15M}")
+    @Transactional
+    public synchronized void rebuild() {
+        LocalDateTime now = LocalDateTime.now();
+        int purged = tokenRevocationRepository.deleteExpired(now);
+
+        BloomFilter tokens = BloomFilter.create(expectedRevocations, falsePositiveRate);
+        Map<String, LocalDateTime> subjects = new ConcurrentHashMap<>();
+        List<TokenRevocation> revocations = tokenRevocationRepository.findByExpiresAtAfter(now);
+        for (TokenRevocation revocation : revocations) {
+            apply(revocation, tokens, subjects);
+        }
+        revokedTokens = tokens;
+        revokedSubjects = subjects;
+        log.info("Loaded {} token revocations, purged {} expired", revocations.size(), purged);
+    }
+
+    // Local state follows committed rows only: the caller's transaction may still roll back
+    private void afterCommit(Runnable update) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            synchronized (this) {
+                update.run();
+            }
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                synchronized (TokenRevocationService.this) {
+                    update.run();
+                }
+            }
+        });
+    }
+
+    private void apply(TokenRevocation revocation, BloomFilter tokens, Map<String, LocalDateTime> subjects) {
+        if (revocation.getJti() != null) {
+            tokens.put(key(revocation.getJti()));
+        }
+        if (revocation.getSubject() != null && revocation.getIssuedBefore() != null) {
+            subjects.merge(revocation.getSubject(), revocation.getIssuedBefore(), this::later);
+        }
+        if (revocation.getCreatedAt() != null && revocation.getCreatedAt().isAfter(watermark)) {
+            watermark = revocation.getCreatedAt();
+        }
+    }
+
+    private LocalDateTime later(LocalDateTime a, LocalDateTime b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    // Token ids are random UUIDs, so their 16 bytes are already a uniform hash
+    private static byte[] key(String jti) {
+        UUID uuid = UUID.fromString(jti);
+        return ByteBuffer.allocate(16)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+    }
+}
@@ -0,0 +1,185 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.request.TransferRequest;
+import com.example.bankcards.dto.response.TransferResponse;
+import com.example.bankcards.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TransferBatcher {
+
+    private final CardService cardService;
+    private final UserService userService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${transfers.group-commit.enabled:false}")
+    private boolean enabled;
+
+    @Value("${transfers.group-commit.max-batch-size:64}")
+    private int maxBatchSize;
+
+    @Value("${transfers.group-commit.max-wait-ms:5}")
+    private long maxWaitMs;
+
+    @Value("${transfers.group-commit.flushers:2}")
+    private int flushers;
+
+    @Value("${transfers.group-commit.timeout-ms:5000}")
+    private long timeoutMs;
+
+    private final BlockingQueue<GroupedTransfer> queue = new LinkedBlockingQueue<>();
+    private ExecutorService executor;
+    private DistributionSummary batchSizes;
+    private volatile boolean running;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+
+        batchSizes = DistributionSummary.builder("transfers.group-commit.batch.size")
+                .description("Transfers committed per transaction")
+                .register(meterRegistry);
+
+        running = true;
+        executor = Executors.newFixedThreadPool(flushers, new CustomizableThreadFactory("transfer-flusher-"));
+        for (int i = 0; i < flushers; i++) {
+            executor.execute(this::flushLoop);
+        }
+        log.info("Group commit enabled: up to {} transfers or {} ms per transaction, {} flushers",
+                maxBatchSize, maxWaitMs, flushers);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (executor != null) {
+            executor.shutdown();
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        }
+        List<GroupedTransfer> abandoned = new ArrayList<>();
+        queue.drainTo(abandoned);
+        abandoned.forEach(TransferBatcher::abandon);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public TransferResponse transfer(TransferRequest request) {
+        if (!running) {
+            throw new ServiceUnavailableException("Server is shutting down, transfer was not executed");
+        }
+        GroupedTransfer transfer = new GroupedTransfer(userService.getCurrentUser(), request);
+        queue.add(transfer);
+        try {
+            return await(transfer);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Transfer was interrupted");
+        }
+    }
+
+    // A transfer a flusher has claimed is already in a transaction, so its outcome is awaited
+    private TransferResponse await(GroupedTransfer transfer) throws ExecutionException, InterruptedException {
+        try {
+            return transfer.getResult().get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            if (transfer.claim()) {
+                queue.remove(transfer);
+                throw new ServiceUnavailableException("Transfer was not executed in time, retry later");
+            }
+            return transfer.getResult().get();
+        }
+    }
+
+    private void flushLoop() {
+        List<GroupedTransfer> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                GroupedTransfer first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                collect(batch);
+                batch.removeIf(transfer -> !transfer.claim());
+                if (!batch.isEmpty()) {
+                    flush(batch);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                batch.forEach(TransferBatcher::abandon);
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void collect(List<GroupedTransfer> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+        while (batch.size() < maxBatchSize) {
+            if (queue.drainTo(batch, maxBatchSize - batch.size()) > 0) {
+                continue;
+            }
+            long remaining = deadline - System.nanoTime();
+            GroupedTransfer next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void flush(List<GroupedTransfer> batch) {
+        try {
+            cardService.transferGroup(batch);
+            batch.forEach(GroupedTransfer::complete);
+            batchSizes.record(batch.size());
+        } catch (RuntimeException ex) {
+            log.warn("Group commit of {} transfers failed, retrying one by one: {}", batch.size(), ex.getMessage());
+            batch.forEach(this::flushSingle);
+        }
+    }
+
+    private static void abandon(GroupedTransfer transfer) {
+        if (transfer.claim()) {
+            transfer.fail(new ServiceUnavailableException("Server is shutting down, transfer was not executed"));
+        }
+    }
+
+    private void flushSingle(GroupedTransfer transfer) {
+        transfer.setResponse(null);
+        transfer.setError(null);
+        try {
+            cardService.transferGroup(List.of(transfer));
+            transfer.complete();
+        } catch (RuntimeException ex) {
+            transfer.fail(ex);
+        }
+    }
+}
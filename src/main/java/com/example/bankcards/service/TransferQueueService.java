@@ -0,0 +1,149 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.request.TransferRequest;
+import com.example.bankcards.dto.response.PendingTransferResponse;
+import com.example.bankcards.entity.PendingTransfer;
+import com.example.bankcards.entity.PendingTransferStatus;
+import com.example.bankcards.entity.Role;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.exception.*;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.PendingTransferRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TransferQueueService {
+
+    private static final int MAX_ERROR_LENGTH = 500;
+    private static final int MAX_BACKOFF_SHIFT = 10;
+
+    private final PendingTransferRepository pendingTransferRepository;
+    private final CardRepository cardRepository;
+    private final CardService cardService;
+    private final UserService userService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${transfers.async.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${transfers.async.retry-backoff-ms:1000}")
+    private long retryBackoffMs;
+
+    @Transactional
+    public PendingTransferResponse submit(TransferRequest request) {
+        if (request.getFromCardId().equals(request.getToCardId())) {
+            throw new BadRequestException("Cannot transfer to the same card");
+        }
+
+        PendingTransfer transfer = pendingTransferRepository.save(PendingTransfer.builder()
+                .owner(userService.getCurrentUser())
+                .fromCardId(request.getFromCardId())
+                .toCardId(request.getToCardId())
+                .amount(request.getAmount())
+                .status(PendingTransferStatus.PENDING)
+                .build());
+
+        return PendingTransferResponse.fromEntity(transfer);
+    }
+
+    @Transactional(readOnly = true)
+    public PendingTransferResponse getStatus(Long id) {
+        User currentUser = userService.getCurrentUser();
+
+        Optional<PendingTransfer> transfer = currentUser.getRole() == Role.ADMIN
+                ? pendingTransferRepository.findById(id)
+                : pendingTransferRepository.findByIdAndOwnerId(id, currentUser.getId());
+
+        return transfer.map(PendingTransferResponse::fromEntity)
+                .orElseThrow(() -> new ResourceNotFoundException("Transfer", "id", id));
+    }
+
+    // Business errors fail the transfer in the same transaction. Anything else (optimistic lock, overflow,
+    // a failed commit) rolls it back and is counted in a separate transaction, so the row is retried with
+    // backoff instead of being claimed again straight away
+    public Optional<PendingTransfer> processNext() {
+        AtomicReference<PendingTransfer> claimedTransfer = new AtomicReference<>();
+        try {
+            return transactionTemplate.execute(status -> {
+                Optional<PendingTransfer> claimed = pendingTransferRepository.claimNext(LocalDateTime.now());
+                claimed.ifPresent(transfer -> {
+                    claimedTransfer.set(transfer);
+                    apply(transfer);
+                });
+                return claimed;
+            });
+        } catch (RuntimeException ex) {
+            PendingTransfer transfer = claimedTransfer.get();
+            if (transfer == null) {
+                throw ex;
+            }
+            transactionTemplate.executeWithoutResult(status -> recordFailedAttempt(transfer, ex));
+            return Optional.of(transfer);
+        }
+    }
+
+    public long countPending() {
+        return pendingTransferRepository.countByStatus(PendingTransferStatus.PENDING);
+    }
+
+    private void apply(PendingTransfer transfer) {
+        TransferRequest request = new TransferRequest(
+                transfer.getFromCardId(), transfer.getToCardId(), transfer.getAmount());
+        try {
+            cardRepository.findAllByOwnerIdAndIdInForUpdate(transfer.getOwner().getId(),
+                    List.of(transfer.getFromCardId(), transfer.getToCardId()));
+            cardService.transferAs(transfer.getOwner(), request);
+            transfer.setStatus(PendingTransferStatus.COMPLETED);
+        } catch (BusinessException ex) {
+            transfer.setStatus(PendingTransferStatus.FAILED);
+            transfer.setError(truncate(ex.getMessage()));
+        }
+        transfer.setProcessedAt(LocalDateTime.now());
+    }
+
+    // The claimed entity is detached after the rollback and only carries the outcome back to the worker
+    private void recordFailedAttempt(PendingTransfer transfer, RuntimeException ex) {
+        int attempts = transfer.getAttempts() + 1;
+        String error = truncate(ex.getClass().getSimpleName() + ": " + ex.getMessage());
+        boolean exhausted = attempts >= maxAttempts;
+        Duration backoff = Duration.ofMillis(retryBackoffMs << Math.min(attempts - 1, MAX_BACKOFF_SHIFT));
+        LocalDateTime now = LocalDateTime.now();
+
+        transfer.setStatus(exhausted ? PendingTransferStatus.FAILED : PendingTransferStatus.PENDING);
+        transfer.setError(error);
+        transfer.setNextAttemptAt(exhausted ? null : now.plus(backoff));
+        transfer.setProcessedAt(exhausted ? now : null);
+        int updated = pendingTransferRepository.recordFailedAttempt(transfer.getId(), transfer.getAttempts(),
+                transfer.getStatus(), error, transfer.getNextAttemptAt(), transfer.getProcessedAt());
+        transfer.setAttempts(attempts);
+
+        if (updated == 0) {
+            transfer.setStatus(PendingTransferStatus.PENDING);
+            log.warn("Transfer {} attempt {} failed and was already retried: {}", transfer.getId(), attempts, ex.getMessage());
+        } else if (exhausted) {
+            log.error("Transfer {} failed after {} attempts", transfer.getId(), attempts, ex);
+        } else {
+            log.warn("Transfer {} attempt {} failed, retrying in {} ms: {}",
+                    transfer.getId(), attempts, backoff.toMillis(), ex.getMessage());
+        }
+    }
+
+    private static String truncate(String message) {
+        return message != null && message.length() > MAX_ERROR_LENGTH
+                ? message.substring(0, MAX_ERROR_LENGTH)
+                : message;
+    }
+}
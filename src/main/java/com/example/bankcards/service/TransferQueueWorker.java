@@ -0,0 +1,89 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.entity.PendingTransfer;
+import com.example.bankcards.entity.PendingTransferStatus;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TransferQueueWorker {
+
+    private final TransferQueueService transferQueueService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${transfers.async.enabled:true}")
+    private boolean enabled;
+
+    @Value("${transfers.async.workers:4}")
+    private int workers;
+
+    @Value("${transfers.async.poll-interval-ms:200}")
+    private long pollIntervalMs;
+
+    private ScheduledExecutorService executor;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        Gauge.builder("transfers.async.queue.depth", transferQueueService, TransferQueueService::countPending)
+                .description("Transfers waiting to be processed")
+                .register(meterRegistry);
+
+        if (!enabled) {
+            log.info("Async transfer workers are disabled");
+            return;
+        }
+
+        executor = Executors.newScheduledThreadPool(workers, new CustomizableThreadFactory("transfer-worker-"));
+        for (int i = 0; i < workers; i++) {
+            executor.scheduleWithFixedDelay(this::drain, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+        }
+        log.info("Started {} async transfer workers", workers);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (executor != null) {
+            executor.shutdown();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    void drain() {
+        try {
+            Optional<PendingTransfer> processed;
+            do {
+                processed = transferQueueService.processNext();
+                processed.filter(transfer -> transfer.getStatus() != PendingTransferStatus.PENDING)
+                        .ifPresent(this::record);
+            } while (processed.isPresent() && !executor.isShutdown());
+        } catch (RuntimeException ex) {
+            log.warn("Async transfer processing failed, will retry: {}", ex.getMessage());
+        }
+    }
+
+    private void record(PendingTransfer transfer) {
+        Timer.builder("transfers.async.latency")
+                .description("Time from submission to completion of an async transfer")
+                .tag("status", transfer.getStatus().name())
+                .register(meterRegistry)
+                .record(Duration.between(transfer.getCreatedAt(), LocalDateTime.now()));
+    }
+}
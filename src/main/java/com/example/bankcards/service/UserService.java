@@ -17,6 +17,8 @@ import org.springframework.transaction.annotation.Transactional;
 public class UserService {
 
     private final UserRepository userRepository;
+    private final CardBalanceSummaryService summaryService;
+    private final TokenRevocationService tokenRevocationService;
 
     @Transactional(readOnly = true)
     public Page<UserResponse> getAllUsers(Pageable pageable) {
@@ -41,7 +43,9 @@ public class UserService {
             throw new BadRequestException("Cannot delete your own account");
         }
 
+        summaryService.ownerRemoved(user.getId());
         userRepository.delete(user);
+        tokenRevocationService.revokeSubject(user.getEmail());
     }
 
     @Transactional(readOnly = true)
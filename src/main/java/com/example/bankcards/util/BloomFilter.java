@@ -0,0 +1,76 @@
+package com.example.bankcards.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Lock-free bloom filter over keys that are already uniformly distributed hashes (at least 16 bytes)
+public class BloomFilter {
+
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashCount;
+    private final AtomicLong entries = new AtomicLong();
+
+    BloomFilter(long bitCount, int hashCount) {
+        this.words = new AtomicLongArray(Math.toIntExact((bitCount + 63) / 64));
+        this.bitCount = (long) words.length() * 64;
+        this.hashCount = hashCount;
+    }
+
+    public static BloomFilter create(long expectedEntries, double falsePositiveRate) {
+        long bits = (long) Math.ceil(-expectedEntries * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int hashes = Math.max(1, (int) Math.round((double) bits / expectedEntries * Math.log(2)));
+        return new BloomFilter(Math.max(64, bits), hashes);
+    }
+
+    public boolean put(byte[] hash) {
+        long h1 = readLong(hash, 0);
+        long h2 = readLong(hash, 8) | 1;
+        boolean changed = false;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current;
+            while (((current = words.get(word)) & mask) == 0) {
+                if (words.compareAndSet(word, current, current | mask)) {
+                    changed = true;
+                    break;
+                }
+            }
+        }
+        if (changed) {
+            entries.incrementAndGet();
+        }
+        return changed;
+    }
+
+    public boolean mightContain(byte[] hash) {
+        long h1 = readLong(hash, 0);
+        long h2 = readLong(hash, 8) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long entries() {
+        return entries.get();
+    }
+
+    // (1 - e^(-kn/m))^k for the entries added so far
+    public double expectedFalsePositiveRate() {
+        return Math.pow(1 - Math.exp(-(double) hashCount * entries.get() / bitCount), hashCount);
+    }
+
+    private static long readLong(byte[] bytes, int offset) {
+        long value = 0;
+        for (int i = offset; i < offset + 8; i++) {
+            value = (value << 8) | (bytes[i] & 0xFF);
+        }
+        return value;
+    }
+}
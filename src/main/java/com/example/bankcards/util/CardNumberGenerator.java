@@ -0,0 +1,82 @@
+package com.example.bankcards.util;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+
+public final class CardNumberGenerator {
+
+    public static final int LENGTH = 16;
+
+    private static final byte ISSUER_DIGIT = 4;
+    private static final int RANDOM_DIGITS = LENGTH - 2;
+    private static final long RANDOM_RANGE = 100_000_000_000_000L;
+    // Largest multiple of 10^14 below 2^63, draws above it are rejected to keep digits uniform
+    private static final long RANDOM_LIMIT = Long.MAX_VALUE - Long.MAX_VALUE % RANDOM_RANGE;
+    private static final int BLOCK_SIZE = 4096;
+
+    // LUHN[p][d] is the contribution of digit d at parity p counted from the rightmost digit
+    private static final int[][] LUHN = {
+            {0, 1, 2, 3, 4, 5, 6, 7, 8, 9},
+            {0, 2, 4, 6, 8, 1, 3, 5, 7, 9}
+    };
+
+    private final SecureRandom random = new SecureRandom();
+    private final ThreadLocal<ByteBuffer> blocks = ThreadLocal.withInitial(() -> ByteBuffer.allocate(BLOCK_SIZE).position(BLOCK_SIZE));
+
+    public String next() {
+        byte[] digits = new byte[LENGTH];
+        digits[0] = ISSUER_DIGIT;
+
+        long value = nextRandom();
+        for (int i = RANDOM_DIGITS; i >= 1; i--) {
+            digits[i] = (byte) (value % 10);
+            value /= 10;
+        }
+        digits[LENGTH - 1] = (byte) checkDigit(digits, LENGTH - 1);
+
+        for (int i = 0; i < LENGTH; i++) {
+            digits[i] += '0';
+        }
+        return new String(digits, StandardCharsets.ISO_8859_1);
+    }
+
+    public static boolean isValid(CharSequence cardNumber) {
+        int length = cardNumber.length();
+        if (length < 2) {
+            return false;
+        }
+        int sum = 0;
+        for (int i = 0; i < length; i++) {
+            int digit = cardNumber.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return false;
+            }
+            sum += LUHN[(length - i + 1) & 1][digit];
+        }
+        return sum % 10 == 0;
+    }
+
+    // Check digit for digits[0..length), which will sit right after them
+    static int checkDigit(byte[] digits, int length) {
+        int sum = 0;
+        for (int i = 0; i < length; i++) {
+            sum += LUHN[(length - i) & 1][digits[i]];
+        }
+        return (10 - sum % 10) % 10;
+    }
+
+    // 14 random digits from one 63-bit draw; the per-thread block amortizes SecureRandom calls
+    private long nextRandom() {
+        ByteBuffer block = blocks.get();
+        long value;
+        do {
+            if (block.remaining() < Long.BYTES) {
+                random.nextBytes(block.array());
+                block.clear();
+            }
+            value = block.getLong() & Long.MAX_VALUE;
+        } while (value >= RANDOM_LIMIT);
+        return value % RANDOM_RANGE;
+    }
+}
@@ -6,12 +6,16 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.Cipher;
+import javax.crypto.Mac;
 import javax.crypto.spec.GCMParameterSpec;
 import javax.crypto.spec.SecretKeySpec;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.security.SecureRandom;
 import java.util.Arrays;
 import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
 
 @Component
 @Slf4j
@@ -20,33 +24,109 @@ public class EncryptionUtil {
     private static final String ALGORITHM = "AES/GCM/NoPadding";
     private static final int GCM_IV_LENGTH = 12;
     private static final int GCM_TAG_LENGTH = 128;
+    private static final char KEY_ID_SEPARATOR = ':';
+    private static final SecureRandom RANDOM = new SecureRandom();
 
+    // Key for ciphertext written before key ids were introduced
     @Value("${encryption.secret-key}")
     private String secretKey;
 
-    private SecretKeySpec keySpec;
+    @Value("${encryption.secret-key-id:v1}")
+    private String secretKeyId = "v1";
+
+    // Additional keys as "id=secret,id=secret"
+    @Value("${encryption.keys:}")
+    private String keys = "";
+
+    @Value("${encryption.active-key-id:}")
+    private String activeKeyId = "";
+
+    // HMAC key for card number fingerprints, required and different from every AES key
+    @Value("${encryption.fingerprint-key:}")
+    private String fingerprintKey = "";
+
+    private final Map<String, SecretKeySpec> keyring = new HashMap<>();
+    private final CardNumberGenerator cardNumberGenerator = new CardNumberGenerator();
+    private SecretKeySpec legacyKey;
+    private ThreadLocal<Mac> fingerprintMac;
 
     @PostConstruct
     public void init() {
-        byte[] key = Arrays.copyOf(secretKey.getBytes(StandardCharsets.UTF_8), 32);
-        this.keySpec = new SecretKeySpec(key, "AES");
+        legacyKey = keySpec(secretKey);
+        addKey(secretKeyId, secretKey);
+        for (String entry : keys.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            int separator = entry.indexOf('=');
+            if (separator <= 0) {
+                throw new IllegalStateException("encryption.keys entries must be id=secret");
+            }
+            addKey(entry.substring(0, separator).trim(), entry.substring(separator + 1).trim());
+        }
+
+        if (activeKeyId.isBlank()) {
+            activeKeyId = secretKeyId;
+        }
+        if (!keyring.containsKey(activeKeyId)) {
+            throw new IllegalStateException("Unknown encryption.active-key-id: " + activeKeyId);
+        }
+
+        if (fingerprintKey.isBlank()) {
+            throw new IllegalStateException("encryption.fingerprint-key must be set");
+        }
+        byte[] fingerprintKeyBytes = keySpec(fingerprintKey).getEncoded();
+        if (keyring.values().stream().anyMatch(key -> MessageDigest.isEqual(key.getEncoded(), fingerprintKeyBytes))) {
+            throw new IllegalStateException("encryption.fingerprint-key must differ from the encryption keys");
+        }
+        SecretKeySpec hmacKey = new SecretKeySpec(fingerprintKey.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
+        fingerprintMac = ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance("HmacSHA256");
+                mac.init(hmacKey);
+                return mac;
+            } catch (Exception e) {
+                throw new IllegalStateException("HmacSHA256 is not available", e);
+            }
+        });
+    }
+
+    // Deterministic, unlike encrypt(), so equal card numbers can be found by lookup
+    public byte[] fingerprint(String cardNumber) {
+        return fingerprintMac.get().doFinal(cardNumber.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public String getActiveKeyId() {
+        return activeKeyId;
+    }
+
+    public String activeKeyPrefix() {
+        return activeKeyId + KEY_ID_SEPARATOR;
+    }
+
+    public boolean isEncryptedWithActiveKey(String encryptedText) {
+        return encryptedText.startsWith(activeKeyPrefix());
+    }
+
+    public String reEncrypt(String encryptedText) {
+        return encrypt(decrypt(encryptedText));
     }
 
     public String encrypt(String plainText) {
         try {
             Cipher cipher = Cipher.getInstance(ALGORITHM);
             byte[] iv = new byte[GCM_IV_LENGTH];
-            new SecureRandom().nextBytes(iv);
+            RANDOM.nextBytes(iv);
             GCMParameterSpec parameterSpec = new GCMParameterSpec(GCM_TAG_LENGTH, iv);
 
-            cipher.init(Cipher.ENCRYPT_MODE, keySpec, parameterSpec);
+            cipher.init(Cipher.ENCRYPT_MODE, keyring.get(activeKeyId), parameterSpec);
             byte[] encryptedBytes = cipher.doFinal(plainText.getBytes(StandardCharsets.UTF_8));
 
             byte[] combined = new byte[iv.length + encryptedBytes.length];
             System.arraycopy(iv, 0, combined, 0, iv.length);
             System.arraycopy(encryptedBytes, 0, combined, iv.length, encryptedBytes.length);
 
-            return Base64.getEncoder().encodeToString(combined);
+            return activeKeyPrefix() + Base64.getEncoder().encodeToString(combined);
         } catch (Exception e) {
             log.error("Error encrypting data", e);
             throw new RuntimeException("Encryption failed", e);
@@ -55,14 +135,20 @@ public class EncryptionUtil {
 
     public String decrypt(String encryptedText) {
         try {
-            byte[] combined = Base64.getDecoder().decode(encryptedText);
+            // Base64 has no ':', so unprefixed values are legacy ciphertext
+            int separator = encryptedText.indexOf(KEY_ID_SEPARATOR);
+            SecretKeySpec key = separator < 0 ? legacyKey : keyring.get(encryptedText.substring(0, separator));
+            if (key == null) {
+                throw new IllegalStateException("Unknown key id " + encryptedText.substring(0, separator));
+            }
+            byte[] combined = Base64.getDecoder().decode(encryptedText.substring(separator + 1));
 
             byte[] iv = Arrays.copyOfRange(combined, 0, GCM_IV_LENGTH);
             byte[] encryptedBytes = Arrays.copyOfRange(combined, GCM_IV_LENGTH, combined.length);
 
             Cipher cipher = Cipher.getInstance(ALGORITHM);
             GCMParameterSpec parameterSpec = new GCMParameterSpec(GCM_TAG_LENGTH, iv);
-            cipher.init(Cipher.DECRYPT_MODE, keySpec, parameterSpec);
+            cipher.init(Cipher.DECRYPT_MODE, key, parameterSpec);
 
             byte[] decryptedBytes = cipher.doFinal(encryptedBytes);
             return new String(decryptedBytes, StandardCharsets.UTF_8);
@@ -72,6 +158,17 @@ public class EncryptionUtil {
         }
     }
 
+    private void addKey(String id, String secret) {
+        if (id.isEmpty() || id.indexOf(KEY_ID_SEPARATOR) >= 0) {
+            throw new IllegalStateException("Invalid encryption key id: " + id);
+        }
+        keyring.put(id, keySpec(secret));
+    }
+
+    private static SecretKeySpec keySpec(String secret) {
+        return new SecretKeySpec(Arrays.copyOf(secret.getBytes(StandardCharsets.UTF_8), 32), "AES");
+    }
+
     public String maskCardNumber(String cardNumber) {
         if (cardNumber == null || cardNumber.length() < 4) {
             return "****";
@@ -81,39 +178,6 @@ public class EncryptionUtil {
     }
 
     public String generateCardNumber() {
-        SecureRandom random = new SecureRandom();
-        StringBuilder cardNumber = new StringBuilder();
-
-        cardNumber.append("4");
-
-        for (int i = 1; i < 15; i++) {
-            cardNumber.append(random.nextInt(10));
-        }
-
-        int checkDigit = calculateLuhnCheckDigit(cardNumber.toString());
-        cardNumber.append(checkDigit);
-
-        return cardNumber.toString();
-    }
-
-    private int calculateLuhnCheckDigit(String cardNumber) {
-        int sum = 0;
-        boolean alternate = true;
-
-        for (int i = cardNumber.length() - 1; i >= 0; i--) {
-            int digit = Character.getNumericValue(cardNumber.charAt(i));
-
-            if (alternate) {
-                digit *= 2;
-                if (digit > 9) {
-                    digit -= 9;
-                }
-            }
-
-            sum += digit;
-            alternate = !alternate;
-        }
-
-        return (10 - (sum % 10)) % 10;
+        return cardNumberGenerator.next();
     }
 }
@@ -0,0 +1,40 @@
+package com.example.bankcards.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Lets through at most permitsPerSecond log lines per key and counts the rest, so a storm of identical
+// rejections costs an increment instead of a formatted log line each
+public class LogSampler {
+
+    private static final long WINDOW_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final int permitsPerSecond;
+    private final AtomicLongArray windowStarts;
+    private final AtomicLongArray permits;
+    private final AtomicLongArray suppressed;
+
+    public LogSampler(int keys, int permitsPerSecond) {
+        this.permitsPerSecond = permitsPerSecond;
+        this.windowStarts = new AtomicLongArray(keys);
+        this.permits = new AtomicLongArray(keys);
+        this.suppressed = new AtomicLongArray(keys);
+        long start = System.nanoTime() - WINDOW_NANOS;
+        for (int i = 0; i < keys; i++) {
+            windowStarts.set(i, start);
+        }
+    }
+
+    // Returns -1 when the line should be dropped, otherwise how many were dropped since the last one
+    public long tryAcquire(int key, long now) {
+        long start = windowStarts.get(key);
+        if (now - start >= WINDOW_NANOS && windowStarts.compareAndSet(key, start, now)) {
+            permits.set(key, 0);
+        }
+        if (permits.incrementAndGet(key) <= permitsPerSecond) {
+            return suppressed.getAndSet(key, 0);
+        }
+        suppressed.incrementAndGet(key);
+        return -1;
+    }
+}
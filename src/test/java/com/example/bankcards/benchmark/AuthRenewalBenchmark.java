@@ -0,0 +1,43 @@
+package com.example.bankcards.benchmark;
+
+import com.example.bankcards.service.RefreshTokenService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+// CPU spent on one session renewal: a password login checks a BCrypt hash (default strength 10),
+// a refresh only HMACs the presented token to find its row
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AuthRenewalBenchmark {
+
+    private BCryptPasswordEncoder passwordEncoder;
+    private String passwordHash;
+    private RefreshTokenService refreshTokenService;
+
+    @Setup
+    public void setUp() {
+        passwordEncoder = new BCryptPasswordEncoder();
+        passwordHash = passwordEncoder.encode("secret123");
+
+        refreshTokenService = new RefreshTokenService(null, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(refreshTokenService, "hashKey", "RefreshTokenHmacKeyThatIsAtLeast32BytesLong");
+        ReflectionTestUtils.setField(refreshTokenService, "expiration", Duration.ofDays(14));
+        refreshTokenService.init();
+    }
+
+    @Benchmark
+    public boolean passwordLogin() {
+        return passwordEncoder.matches("secret123", passwordHash);
+    }
+
+    @Benchmark
+    public Object refreshTokenHash() {
+        return ReflectionTestUtils.invokeMethod(refreshTokenService, "hash", "q8G2vX0cN5mZ1pLr7tYb3kWs9dHf4jUe6aTo0iQn2xE");
+    }
+}
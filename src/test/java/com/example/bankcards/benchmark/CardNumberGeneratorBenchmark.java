@@ -0,0 +1,65 @@
+package com.example.bankcards.benchmark;
+
+import com.example.bankcards.util.CardNumberGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class CardNumberGeneratorBenchmark {
+
+    private CardNumberGenerator generator;
+    private String cardNumber;
+
+    @Setup
+    public void setUp() {
+        generator = new CardNumberGenerator();
+        cardNumber = generator.next();
+    }
+
+    @Benchmark
+    public String generate() {
+        return generator.next();
+    }
+
+    @Benchmark
+    public String generatePerDigitSecureRandom() {
+        SecureRandom random = new SecureRandom();
+        StringBuilder number = new StringBuilder("4");
+        for (int i = 1; i < 15; i++) {
+            number.append(random.nextInt(10));
+        }
+        number.append(characterLuhnCheckDigit(number.toString()));
+        return number.toString();
+    }
+
+    @Benchmark
+    public boolean validate() {
+        return CardNumberGenerator.isValid(cardNumber);
+    }
+
+    @Benchmark
+    public int validateCharacterGetNumericValue() {
+        return characterLuhnCheckDigit(cardNumber.substring(0, 15));
+    }
+
+    private static int characterLuhnCheckDigit(String digits) {
+        int sum = 0;
+        boolean alternate = true;
+        for (int i = digits.length() - 1; i >= 0; i--) {
+            int digit = Character.getNumericValue(digits.charAt(i));
+            if (alternate) {
+                digit *= 2;
+                if (digit > 9) {
+                    digit -= 9;
+                }
+            }
+            sum += digit;
+            alternate = !alternate;
+        }
+        return (10 - (sum % 10)) % 10;
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.bankcards.benchmark;
+
+import com.example.bankcards.config.CborPageHttpMessageConverter;
+import com.example.bankcards.dto.response.CardResponse;
+import com.example.bankcards.entity.CardStatus;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CardPayloadBenchmark {
+
+    @Param({"10", "100"})
+    private int pageSize;
+
+    private Page<CardResponse> page;
+    private MappingJackson2HttpMessageConverter jsonConverter;
+    private CborPageHttpMessageConverter cborConverter;
+
+    @Setup
+    public void setUp() {
+        List<CardResponse> cards = new ArrayList<>(pageSize);
+        for (long i = 0; i < pageSize; i++) {
+            cards.add(CardResponse.builder()
+                    .id(1_000_000L + i)
+                    .maskedCardNumber("**** **** **** " + (1000 + i))
+                    .ownerId(42L)
+                    .ownerEmail("corporate.owner@example.com")
+                    .expiryDate(LocalDate.of(2029, 12, 31))
+                    .status(CardStatus.ACTIVE)
+                    .balance(new BigDecimal("123456.78").add(BigDecimal.valueOf(i)))
+                    .createdAt(LocalDateTime.of(2024, 1, 15, 10, 30))
+                    .updatedAt(LocalDateTime.of(2024, 6, 1, 8, 0))
+                    .build());
+        }
+        page = new PageImpl<>(cards, PageRequest.of(0, pageSize), 10_000);
+
+        jsonConverter = new MappingJackson2HttpMessageConverter(Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build());
+        cborConverter = new CborPageHttpMessageConverter(Jackson2ObjectMapperBuilder.json()
+                .factory(new CBORFactory())
+                .featuresToEnable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build());
+    }
+
+    @Benchmark
+    public MockHttpOutputMessage json() throws IOException {
+        MockHttpOutputMessage message = new MockHttpOutputMessage();
+        jsonConverter.write(page, MediaType.APPLICATION_JSON, message);
+        return message;
+    }
+
+    @Benchmark
+    public MockHttpOutputMessage cbor() throws IOException {
+        MockHttpOutputMessage message = new MockHttpOutputMessage();
+        cborConverter.write(page, MediaType.APPLICATION_CBOR, message);
+        return message;
+    }
+}
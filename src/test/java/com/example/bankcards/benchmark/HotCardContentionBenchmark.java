@@ -0,0 +1,92 @@
+package com.example.bankcards.benchmark;
+
+import com.example.bankcards.service.CardLanes;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(32)
+public class HotCardContentionBenchmark {
+
+    private static final int CARDS = 10_000;
+    private static final int CONNECTIONS = 10;
+    private static final long ROW_LOCK_HOLD_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+
+    @Param({"0.8", "1.2"})
+    private double zipfExponent;
+
+    @Param({"0", "64", "1024"})
+    private int laneCount;
+
+    private double[] cumulative;
+    private ReentrantLock[] rowLocks;
+    private Semaphore connectionPool;
+    private CardLanes cardLanes;
+
+    @Setup
+    public void setUp() {
+        cumulative = new double[CARDS];
+        double sum = 0;
+        for (int rank = 0; rank < CARDS; rank++) {
+            sum += 1.0 / Math.pow(rank + 1, zipfExponent);
+            cumulative[rank] = sum;
+        }
+        for (int rank = 0; rank < CARDS; rank++) {
+            cumulative[rank] /= sum;
+        }
+
+        rowLocks = new ReentrantLock[CARDS];
+        Arrays.setAll(rowLocks, i -> new ReentrantLock());
+        connectionPool = new Semaphore(CONNECTIONS);
+
+        cardLanes = new CardLanes();
+        ReflectionTestUtils.setField(cardLanes, "enabled", laneCount > 0);
+        ReflectionTestUtils.setField(cardLanes, "laneCount", laneCount);
+        cardLanes.init();
+    }
+
+    @Benchmark
+    public int transfer() {
+        long from = nextCard();
+        long to = nextCard();
+        while (to == from) {
+            to = nextCard();
+        }
+        long source = from;
+        long target = to;
+        return cardLanes.execute(source, target, () -> databaseTransfer(source, target));
+    }
+
+    private int databaseTransfer(long from, long to) {
+        connectionPool.acquireUninterruptibly();
+        try {
+            ReentrantLock first = rowLocks[(int) Math.min(from, to)];
+            ReentrantLock second = rowLocks[(int) Math.max(from, to)];
+            first.lock();
+            second.lock();
+            try {
+                LockSupport.parkNanos(ROW_LOCK_HOLD_NANOS);
+                return 1;
+            } finally {
+                second.unlock();
+                first.unlock();
+            }
+        } finally {
+            connectionPool.release();
+        }
+    }
+
+    private long nextCard() {
+        int rank = Arrays.binarySearch(cumulative, ThreadLocalRandom.current().nextDouble());
+        return rank >= 0 ? rank : Math.min(-rank - 1, CARDS - 1);
+    }
+}
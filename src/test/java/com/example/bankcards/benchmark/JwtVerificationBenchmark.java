@@ -0,0 +1,79 @@
+package com.example.bankcards.benchmark;
+
+import com.example.bankcards.security.JwtTokenProvider;
+import com.example.bankcards.service.JwtKeyService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.interfaces.ECPublicKey;
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Per-request cost of authenticating a bearer token: the previous HS512 parse, a full ES256 verification,
+// and a repeat request answered from the verified token cache
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JwtVerificationBenchmark {
+
+    private JwtParser hmacParser;
+    private String hmacToken;
+    private JwtParser ecParser;
+    private String ecToken;
+    private JwtTokenProvider tokenProvider;
+    private String cachedToken;
+
+    @Setup
+    public void setUp() {
+        Date expiration = new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1));
+
+        SecretKey secret = Keys.hmacShaKeyFor(
+                "verySecretKeyForJwtTokenGenerationThatShouldBeAtLeast256BitsLong12345".getBytes(StandardCharsets.UTF_8));
+        hmacParser = Jwts.parser().verifyWith(secret).build();
+        hmacToken = Jwts.builder().subject("user@example.com").claim("role", "USER")
+                .expiration(expiration).signWith(secret).compact();
+
+        KeyPair keyPair = Jwts.SIG.ES256.keyPair().build();
+        ecParser = Jwts.parser().verifyWith(keyPair.getPublic()).build();
+        ecToken = Jwts.builder().header().keyId("key-1").and().subject("user@example.com").claim("role", "USER")
+                .expiration(expiration).signWith(keyPair.getPrivate(), Jwts.SIG.ES256).compact();
+
+        JwtKeyService jwtKeyService = mock(JwtKeyService.class);
+        when(jwtKeyService.signingKey()).thenReturn(
+                new JwtKeyService.SigningKey("key-1", keyPair.getPrivate(), LocalDateTime.now()));
+        when(jwtKeyService.publicKey("key-1")).thenReturn((ECPublicKey) keyPair.getPublic());
+        tokenProvider = new JwtTokenProvider(jwtKeyService, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(tokenProvider, "jwtExpiration", TimeUnit.HOURS.toMillis(1));
+        ReflectionTestUtils.setField(tokenProvider, "verifiedCacheMaxEntries", 1000);
+        tokenProvider.init();
+        cachedToken = tokenProvider.generateToken("user@example.com", "USER");
+        tokenProvider.parseToken(cachedToken);
+    }
+
+    @Benchmark
+    public Claims hs512Verify() {
+        return hmacParser.parseSignedClaims(hmacToken).getPayload();
+    }
+
+    @Benchmark
+    public Claims es256Verify() {
+        return ecParser.parseSignedClaims(ecToken).getPayload();
+    }
+
+    @Benchmark
+    public Claims es256Cached() {
+        return tokenProvider.parseToken(cachedToken);
+    }
+}
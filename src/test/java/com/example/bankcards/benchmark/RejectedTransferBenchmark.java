@@ -0,0 +1,81 @@
+package com.example.bankcards.benchmark;
+
+import com.example.bankcards.dto.response.ApiError;
+import com.example.bankcards.exception.GlobalExceptionHandler;
+import com.example.bankcards.exception.InsufficientFundsException;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+// Rejected transfer thrown from under a servlet-sized call stack and turned into an error response
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class RejectedTransferBenchmark {
+
+    @Param({"20", "100"})
+    private int stackDepth;
+
+    private GlobalExceptionHandler globalExceptionHandler;
+    private MockHttpServletRequest request;
+
+    @Setup
+    public void setUp() {
+        globalExceptionHandler = new GlobalExceptionHandler();
+        // Every line is sampled out so both paths compare exception and response cost only
+        ReflectionTestUtils.setField(globalExceptionHandler, "logPermitsPerSecond", 0);
+        globalExceptionHandler.init();
+        request = new MockHttpServletRequest("POST", "/api/cards/transfer");
+        request.setRequestURI("/api/cards/transfer");
+    }
+
+    @Benchmark
+    public ResponseEntity<ApiError> rejectStackless() {
+        try {
+            throwAt(stackDepth, false);
+            return null;
+        } catch (InsufficientFundsException ex) {
+            return globalExceptionHandler.handleBusinessException(ex, request);
+        }
+    }
+
+    @Benchmark
+    public ResponseEntity<ApiError> rejectWithStackTrace() {
+        try {
+            throwAt(stackDepth, true);
+            return null;
+        } catch (StackTraceInsufficientFundsException ex) {
+            ApiError error = ApiError.builder()
+                    .timestamp(LocalDateTime.now())
+                    .status(HttpStatus.BAD_REQUEST.value())
+                    .error("Insufficient Funds")
+                    .message(ex.getMessage())
+                    .path(request.getRequestURI())
+                    .build();
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+        }
+    }
+
+    private static void throwAt(int depth, boolean withStackTrace) {
+        if (depth > 0) {
+            throwAt(depth - 1, withStackTrace);
+            return;
+        }
+        if (withStackTrace) {
+            throw new StackTraceInsufficientFundsException("Insufficient funds on card");
+        }
+        throw new InsufficientFundsException("Insufficient funds on card");
+    }
+
+    private static class StackTraceInsufficientFundsException extends RuntimeException {
+
+        StackTraceInsufficientFundsException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.bankcards.config;
+
+import com.example.bankcards.dto.response.BalanceResponse;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CborPageHttpMessageConverterTest {
+
+    private ObjectMapper cborMapper;
+    private CborPageHttpMessageConverter converter;
+
+    @BeforeEach
+    void setUp() {
+        cborMapper = Jackson2ObjectMapperBuilder.json()
+                .factory(new CBORFactory())
+                .featuresToEnable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        converter = new CborPageHttpMessageConverter(cborMapper);
+    }
+
+    @Test
+    void write_Page_UsesSlimEnvelope() throws Exception {
+        BalanceResponse balance = new BalanceResponse(1L, "**** **** **** 1111", new BigDecimal("10.50"));
+        MockHttpOutputMessage message = new MockHttpOutputMessage();
+
+        converter.write(new PageImpl<>(List.of(balance), PageRequest.of(2, 1), 5), MediaType.APPLICATION_CBOR, message);
+
+        JsonNode body = cborMapper.readTree(message.getBodyAsBytes());
+        assertEquals(2, body.get("page").asInt());
+        assertEquals(1, body.get("size").asInt());
+        assertEquals(5, body.get("totalElements").asLong());
+        assertEquals(5, body.get("totalPages").asInt());
+        assertFalse(body.has("pageable"));
+        assertFalse(body.has("sort"));
+        assertEquals(0, new BigDecimal("10.50").compareTo(body.get("content").get(0).get("balance").decimalValue()));
+    }
+
+    @Test
+    void write_Dto_WritesCbor() throws Exception {
+        BalanceResponse balance = new BalanceResponse(1L, "**** **** **** 1111", new BigDecimal("10.50"));
+        MockHttpOutputMessage message = new MockHttpOutputMessage();
+
+        converter.write(balance, MediaType.APPLICATION_CBOR, message);
+
+        assertEquals(balance, cborMapper.readValue(message.getBodyAsBytes(), BalanceResponse.class));
+        assertEquals(MediaType.APPLICATION_CBOR, message.getHeaders().getContentType());
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.bankcards.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonLogEncoderTest {
+
+    private final JsonLogEncoder encoder = new JsonLogEncoder();
+    private final Logger logger = ((LoggerContext) LoggerFactory.getILoggerFactory()).getLogger("com.example.bankcards.Test");
+
+    @Test
+    void encode_WritesFormattedMessageAsOneJsonLine() throws Exception {
+        LoggingEvent event = new LoggingEvent(Logger.class.getName(), logger, Level.WARN,
+                "Card {} said \"{}\"", null, new Object[]{42, "line\nbreak"});
+
+        String line = new String(encoder.encode(event), StandardCharsets.UTF_8);
+
+        assertTrue(line.endsWith("}\n"));
+        assertEquals(1, line.split("\n").length);
+        JsonNode json = new ObjectMapper().readTree(line);
+        assertEquals("WARN", json.get("level").asText());
+        assertEquals("com.example.bankcards.Test", json.get("logger").asText());
+        assertEquals("Card 42 said \"line\nbreak\"", json.get("message").asText());
+        assertFalse(json.has("exception"));
+    }
+
+    @Test
+    void encode_IncludesException() throws Exception {
+        LoggingEvent event = new LoggingEvent(Logger.class.getName(), logger, Level.ERROR,
+                "Failed", new IllegalStateException("boom"), null);
+
+        JsonNode json = new ObjectMapper().readTree(encoder.encode(event));
+
+        assertTrue(json.get("exception").asText().startsWith("java.lang.IllegalStateException: boom"));
+    }
+}
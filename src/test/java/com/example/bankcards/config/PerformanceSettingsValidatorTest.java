@@ -0,0 +1,52 @@
+package com.example.bankcards.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PerformanceSettingsValidatorTest {
+
+    @Test
+    void findSlowSettings_Defaults_WarnsAboutOpenInViewAndBatching() {
+        MockEnvironment environment = new MockEnvironment();
+
+        List<String> warnings = new PerformanceSettingsValidator(environment).findSlowSettings();
+
+        assertEquals(2, warnings.size());
+        assertTrue(warnings.get(0).contains("open-in-view"));
+        assertTrue(warnings.get(1).contains("batch_size"));
+    }
+
+    @Test
+    void findSlowSettings_VerboseSettings_AllReported() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("spring.jpa.open-in-view", "false")
+                .withProperty("spring.jpa.show-sql", "true")
+                .withProperty("spring.jpa.properties.hibernate.format_sql", "true")
+                .withProperty("spring.jpa.properties.hibernate.jdbc.batch_size", "50")
+                .withProperty("logging.level.com.example.bankcards", "debug");
+
+        List<String> warnings = new PerformanceSettingsValidator(environment).findSlowSettings();
+
+        assertEquals(3, warnings.size());
+    }
+
+    @Test
+    void findSlowSettings_TunedSettings_NoWarnings() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("spring.jpa.open-in-view", "false")
+                .withProperty("spring.jpa.properties.hibernate.jdbc.batch_size", "50")
+                .withProperty("logging.level.com.example.bankcards", "INFO");
+
+        assertTrue(new PerformanceSettingsValidator(environment).findSlowSettings().isEmpty());
+    }
+
+    @Test
+    void calculatePoolSize_ScalesWithCores() {
+        assertEquals(17, PerformanceConfig.calculatePoolSize(8, 2, 1));
+        assertEquals(1, PerformanceConfig.calculatePoolSize(0, 2, 0));
+    }
+}
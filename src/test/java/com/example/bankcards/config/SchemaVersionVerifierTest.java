@@ -0,0 +1,96 @@
+package com.example.bankcards.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import liquibase.ChecksumVersion;
+import liquibase.changelog.ChangeSet;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SchemaVersionVerifierTest {
+
+    private List<ChangeSet> changeSets;
+    private List<SchemaVersionVerifier.AppliedChangeSet> applied;
+
+    @BeforeEach
+    void setUp() {
+        SchemaVersionVerifier verifier = new SchemaVersionVerifier(null);
+        ReflectionTestUtils.setField(verifier, "changeLog", "classpath:db/migration/db.changelog-master.xml");
+        changeSets = verifier.parseChangeLog();
+
+        applied = new ArrayList<>();
+        for (ChangeSet changeSet : changeSets) {
+            applied.add(new SchemaVersionVerifier.AppliedChangeSet(changeSet.getId(), changeSet.getAuthor(),
+                    changeSet.getStoredFilePath(), changeSet.generateCheckSum(ChecksumVersion.latest()).toString()));
+        }
+    }
+
+    @Test
+    void findMismatches_AllApplied_None() {
+        applied.add(new SchemaVersionVerifier.AppliedChangeSet("999-next-release", "bankcards-app",
+                "db/migration/999-next-release.xml", "9:0"));
+
+        assertTrue(SchemaVersionVerifier.findMismatches(changeSets, applied).isEmpty());
+    }
+
+    @Test
+    void findMismatches_StoredChecksumFromDatabase_Matches() {
+        // As written by Liquibase 4.24 on PostgreSQL
+        applied.set(0, new SchemaVersionVerifier.AppliedChangeSet("001-create-users-table", "bankcards-app",
+                "db/migration/001-create-users-table.xml", "9:af595ecb6d728abc88acb466f14f227e"));
+
+        assertTrue(SchemaVersionVerifier.findMismatches(changeSets, applied).isEmpty());
+    }
+
+    @Test
+    void findMismatches_PendingAndChangedChangeSets_Reported() {
+        SchemaVersionVerifier.AppliedChangeSet last = applied.remove(applied.size() - 1);
+        SchemaVersionVerifier.AppliedChangeSet first = applied.get(0);
+        applied.set(0, new SchemaVersionVerifier.AppliedChangeSet(first.id(), first.author(), first.filename(),
+                "9:00000000000000000000000000000000"));
+
+        List<String> problems = SchemaVersionVerifier.findMismatches(changeSets, applied);
+
+        assertEquals(List.of(first.id() + " was changed after it was applied", last.id() + " is not applied"), problems);
+    }
+
+    @Test
+    void changeLogTag_SameChangeLog_StableDigest() {
+        String tag = SchemaVersionVerifier.changeLogTag("classpath:db/migration/db.changelog-master.xml");
+
+        assertEquals(tag, SchemaVersionVerifier.changeLogTag("classpath:/db/migration/db.changelog-master.xml"));
+        assertTrue(tag.matches("sha256:[0-9a-f]{64}"));
+    }
+
+    @Test
+    void tagMigratedSchema_AutoCommitOff_TagCommitted() {
+        String changeLog = "classpath:db/migration/db.changelog-master.xml";
+        try (HikariDataSource dataSource = new HikariDataSource()) {
+            dataSource.setJdbcUrl("jdbc:h2:mem:tag-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+            dataSource.setAutoCommit(false);
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.execute("CREATE TABLE databasechangelog (id VARCHAR(255), orderexecuted INT, tag VARCHAR(255))");
+                jdbcTemplate.execute("INSERT INTO databasechangelog VALUES ('001', 1, NULL), ('002', 2, NULL)");
+            });
+
+            SchemaVersionVerifier.tagMigratedSchema(jdbcTemplate, transactionTemplate, changeLog, "databasechangelog");
+
+            // Read back on a fresh connection after the pool has reset the one used for the update
+            dataSource.getHikariPoolMXBean().softEvictConnections();
+            List<String> tags = jdbcTemplate.queryForList(
+                    "SELECT tag FROM databasechangelog ORDER BY orderexecuted", String.class);
+            assertEquals(Arrays.asList(null, SchemaVersionVerifier.changeLogTag(changeLog)), tags);
+        }
+    }
+}
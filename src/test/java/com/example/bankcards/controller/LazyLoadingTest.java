@@ -0,0 +1,244 @@
+package com.example.bankcards.controller;
+
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.CardStatus;
+import com.example.bankcards.entity.Role;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.util.EncryptionUtil;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.LazyInitializationException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultMatcher;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(LazyLoadingTest.ConnectionProbe.class)
+class LazyLoadingTest {
+
+    private static final String OWNER_EMAIL = "owner@example.com";
+    private static final String ADMIN_EMAIL = "admin@example.com";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private EncryptionUtil encryptionUtil;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ConnectionProbe connectionProbe;
+
+    private Card card;
+
+    @BeforeEach
+    void setUp() {
+        connectionProbe.reset();
+        User owner = userRepository.save(User.builder()
+                .email(OWNER_EMAIL)
+                .password("encoded_password")
+                .role(Role.USER)
+                .build());
+        userRepository.save(User.builder()
+                .email(ADMIN_EMAIL)
+                .password("encoded_password")
+                .role(Role.ADMIN)
+                .build());
+
+        card = cardRepository.save(Card.builder()
+                .cardNumber(encryptionUtil.encrypt("4111111111111111"))
+                .owner(owner)
+                .expiryDate(LocalDate.now().plusYears(3))
+                .status(CardStatus.ACTIVE)
+                .balance(new BigDecimal("1000.00"))
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        cardRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void openSessionInView_IsDisabled() {
+        assertTrue(context.getBeansOfType(OpenEntityManagerInViewInterceptor.class).isEmpty());
+    }
+
+    @Test
+    void connectionUsage_IsMetered() throws Exception {
+        mockMvc.perform(get("/api/cards").with(user(OWNER_EMAIL).roles("USER")))
+                .andExpect(status().isOk());
+
+        assertTrue(meterRegistry.get("hikaricp.connections.usage").timer().count() > 0);
+    }
+
+    @Test
+    void getCurrentUserCards_OwnerMaterialized() throws Exception {
+        mockMvc.perform(get("/api/cards").with(user(OWNER_EMAIL).roles("USER")))
+                .andExpect(status().isOk())
+                .andExpect(noLazyInitialization())
+                .andExpect(jsonPath("$.content[0].ownerEmail").value(OWNER_EMAIL));
+
+        assertNoConnectionsHeld();
+    }
+
+    @Test
+    void getAllCards_OwnerMaterialized() throws Exception {
+        mockMvc.perform(get("/api/cards/all").with(user(ADMIN_EMAIL).roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andExpect(noLazyInitialization())
+                .andExpect(jsonPath("$.content[0].ownerEmail").value(OWNER_EMAIL));
+
+        assertNoConnectionsHeld();
+    }
+
+    @Test
+    void getCardById_OwnerMaterialized() throws Exception {
+        mockMvc.perform(get("/api/cards/{id}", card.getId()).with(user(OWNER_EMAIL).roles("USER")))
+                .andExpect(status().isOk())
+                .andExpect(noLazyInitialization())
+                .andExpect(jsonPath("$.ownerEmail").value(OWNER_EMAIL))
+                .andExpect(jsonPath("$.maskedCardNumber").value("**** **** **** 1111"));
+
+        assertNoConnectionsHeld();
+    }
+
+    @Test
+    void getCardById_MatchingETag_NotModified() throws Exception {
+        String eTag = mockMvc.perform(get("/api/cards/{id}", card.getId()).with(user(OWNER_EMAIL).roles("USER")))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/cards/{id}", card.getId()).with(user(OWNER_EMAIL).roles("USER"))
+                        .header("If-None-Match", eTag))
+                .andExpect(status().isNotModified());
+
+        assertNoConnectionsHeld();
+    }
+
+    @Test
+    void getBalance_Materialized() throws Exception {
+        mockMvc.perform(get("/api/cards/{id}/balance", card.getId()).with(user(OWNER_EMAIL).roles("USER")))
+                .andExpect(status().isOk())
+                .andExpect(noLazyInitialization())
+                .andExpect(jsonPath("$.balance").value(1000.00));
+
+        assertNoConnectionsHeld();
+    }
+
+    @Test
+    void getUsers_Materialized() throws Exception {
+        mockMvc.perform(get("/api/users").with(user(ADMIN_EMAIL).roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andExpect(noLazyInitialization())
+                .andExpect(jsonPath("$.totalElements").value(2));
+
+        mockMvc.perform(get("/api/users/{id}", card.getOwner().getId()).with(user(ADMIN_EMAIL).roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andExpect(noLazyInitialization())
+                .andExpect(jsonPath("$.email").value(OWNER_EMAIL));
+
+        assertNoConnectionsHeld();
+    }
+
+    private ResultMatcher noLazyInitialization() {
+        return result -> {
+            for (Throwable ex = result.getResolvedException(); ex != null; ex = ex.getCause()) {
+                if (ex instanceof LazyInitializationException) {
+                    fail("Lazy initialization outside of a transaction: " + ex.getMessage());
+                }
+            }
+        };
+    }
+
+    // With open-in-view the entity manager keeps its connection until the request completes, which is after
+    // the body has been written, so the pool is sampled while the response is serialized
+    private void assertNoConnectionsHeld() throws SQLException {
+        assertTrue(connectionProbe.bodiesWritten.get() > 0, "No response body was written");
+        assertEquals(0, connectionProbe.maxActiveConnections.get(), "Connection held while writing the response");
+
+        HikariDataSource hikari = dataSource.unwrap(HikariDataSource.class);
+        assertEquals(0, hikari.getHikariPoolMXBean().getActiveConnections());
+    }
+
+    @ControllerAdvice
+    static class ConnectionProbe implements ResponseBodyAdvice<Object> {
+
+        private final AtomicInteger bodiesWritten = new AtomicInteger();
+        private final AtomicInteger maxActiveConnections = new AtomicInteger();
+
+        @Autowired
+        private DataSource dataSource;
+
+        @Override
+        public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+            return true;
+        }
+
+        @Override
+        public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                      Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                      ServerHttpRequest request, ServerHttpResponse response) {
+            try {
+                int active = dataSource.unwrap(HikariDataSource.class).getHikariPoolMXBean().getActiveConnections();
+                maxActiveConnections.accumulateAndGet(active, Math::max);
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+            bodiesWritten.incrementAndGet();
+            return body;
+        }
+
+        void reset() {
+            bodiesWritten.set(0);
+            maxActiveConnections.set(0);
+        }
+    }
+}
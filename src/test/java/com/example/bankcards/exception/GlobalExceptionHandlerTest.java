@@ -0,0 +1,65 @@
+package com.example.bankcards.exception;
+
+import com.example.bankcards.dto.response.ApiError;
+import com.example.bankcards.util.LogSampler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GlobalExceptionHandlerTest {
+
+    private GlobalExceptionHandler globalExceptionHandler;
+
+    @BeforeEach
+    void setUp() {
+        globalExceptionHandler = new GlobalExceptionHandler();
+        ReflectionTestUtils.setField(globalExceptionHandler, "logPermitsPerSecond", 2);
+        globalExceptionHandler.init();
+    }
+
+    @Test
+    void businessException_IsStackless() {
+        InsufficientFundsException ex = new InsufficientFundsException("Insufficient funds on card");
+
+        assertEquals(0, ex.getStackTrace().length);
+        ex.addSuppressed(new IllegalStateException());
+        assertEquals(0, ex.getSuppressed().length);
+    }
+
+    @Test
+    void handleBusinessException_UsesTemplate() {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/cards/transfer");
+        request.setRequestURI("/api/cards/transfer");
+
+        ResponseEntity<ApiError> response = globalExceptionHandler.handleBusinessException(
+                new CardNotActiveException("Source card is not active"), request);
+
+        assertEquals(400, response.getStatusCode().value());
+        assertEquals("Card Not Active", response.getBody().getError());
+        assertEquals("Source card is not active", response.getBody().getMessage());
+        assertEquals("/api/cards/transfer", response.getBody().getPath());
+
+        assertEquals("Card not found with id: '5'",
+                new ResourceNotFoundException("Card", "id", 5L).getMessage());
+    }
+
+    @Test
+    void handleGenericException_LogIsSampled() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/cards");
+        for (int i = 0; i < 5; i++) {
+            assertEquals(500, globalExceptionHandler.handleGenericException(
+                    new IllegalStateException("boom"), request).getStatusCode().value());
+        }
+
+        LogSampler logSampler = (LogSampler) ReflectionTestUtils.getField(globalExceptionHandler, "logSampler");
+        assertEquals(3, logSampler.tryAcquire(GlobalExceptionHandler.UNEXPECTED_ERROR_LOG,
+                System.nanoTime() + TimeUnit.SECONDS.toNanos(2)));
+        assertEquals(0, logSampler.tryAcquire(GlobalExceptionHandler.CONCURRENT_MODIFICATION_LOG, System.nanoTime()));
+    }
+}
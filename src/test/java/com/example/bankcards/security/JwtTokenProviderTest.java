@@ -0,0 +1,86 @@
+package com.example.bankcards.security;
+
+import com.example.bankcards.service.JwtKeyService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.security.KeyPair;
+import java.security.interfaces.ECPublicKey;
+import java.time.LocalDateTime;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JwtTokenProviderTest {
+
+    private static final String KID = "key-1";
+
+    @Mock
+    private JwtKeyService jwtKeyService;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final KeyPair keyPair = Jwts.SIG.ES256.keyPair().build();
+
+    private JwtTokenProvider tokenProvider;
+
+    @BeforeEach
+    void setUp() {
+        tokenProvider = new JwtTokenProvider(jwtKeyService, meterRegistry);
+        ReflectionTestUtils.setField(tokenProvider, "jwtExpiration", 900_000L);
+        ReflectionTestUtils.setField(tokenProvider, "logPermitsPerSecond", 0);
+        ReflectionTestUtils.setField(tokenProvider, "verifiedCacheMaxEntries", 100);
+        tokenProvider.init();
+
+        lenient().when(jwtKeyService.signingKey()).thenReturn(
+                new JwtKeyService.SigningKey(KID, keyPair.getPrivate(), LocalDateTime.now()));
+        lenient().when(jwtKeyService.publicKey(KID)).thenReturn((ECPublicKey) keyPair.getPublic());
+    }
+
+    @Test
+    void parseToken_SecondTime_SkipsSignatureVerification() {
+        String token = tokenProvider.generateToken("user@example.com", "USER");
+
+        Claims first = tokenProvider.parseToken(token);
+        Claims second = tokenProvider.parseToken(token);
+
+        assertEquals("user@example.com", first.getSubject());
+        assertEquals("USER", first.get(JwtTokenProvider.ROLE_CLAIM, String.class));
+        assertSame(first, second);
+        verify(jwtKeyService, times(1)).publicKey(KID);
+        assertEquals(1, meterRegistry.get("security.jwt.verified-cache").tag("result", "hit").counter().count());
+    }
+
+    @Test
+    void parseToken_TamperedPayload_Rejected() {
+        String token = tokenProvider.generateToken("user@example.com", "USER");
+        String forged = Jwts.builder().subject("admin@example.com").claim(JwtTokenProvider.ROLE_CLAIM, "ADMIN")
+                .expiration(new Date(System.currentTimeMillis() + 60_000)).compact().split("\\.")[1];
+        String[] parts = token.split("\\.");
+
+        assertNull(tokenProvider.parseToken(parts[0] + "." + forged + "." + parts[2]));
+        assertEquals(1, meterRegistry.get("security.jwt.rejected").tag("reason", "bad_signature").counter().count());
+    }
+
+    @Test
+    void parseToken_UnknownKid_Rejected() {
+        KeyPair otherKeys = Jwts.SIG.ES256.keyPair().build();
+        String token = Jwts.builder()
+                .header().keyId("unknown").and()
+                .subject("user@example.com")
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(otherKeys.getPrivate(), Jwts.SIG.ES256)
+                .compact();
+
+        assertNull(tokenProvider.parseToken(token));
+        assertEquals(1, meterRegistry.get("security.jwt.rejected").tag("reason", "unknown_key").counter().count());
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.bankcards.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class LoadSheddingFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private LoadSheddingFilter loadSheddingFilter;
+
+    @BeforeEach
+    void setUp() {
+        loadSheddingFilter = new LoadSheddingFilter(mock(DataSource.class),
+                new ObjectMapper().registerModule(new JavaTimeModule()), meterRegistry);
+        ReflectionTestUtils.setField(loadSheddingFilter, "enabled", true);
+        ReflectionTestUtils.setField(loadSheddingFilter, "initialLimit", 4);
+        ReflectionTestUtils.setField(loadSheddingFilter, "minLimit", 2);
+        ReflectionTestUtils.setField(loadSheddingFilter, "maxLimit", 8);
+        ReflectionTestUtils.setField(loadSheddingFilter, "latencyTargetMs", 100L);
+        ReflectionTestUtils.setField(loadSheddingFilter, "backoffRatio", 0.5);
+        ReflectionTestUtils.setField(loadSheddingFilter, "normalPriorityShare", 0.75);
+        ReflectionTestUtils.setField(loadSheddingFilter, "lowPriorityShare", 0.5);
+        loadSheddingFilter.init();
+    }
+
+    @Test
+    void lowPriority_ShedBeforeTransfers() throws Exception {
+        MockHttpServletResponse[] nested = new MockHttpServletResponse[2];
+        FilterChain twoInFlight = (request, response) -> loadSheddingFilter.doFilter(
+                request("/api/cards"), new MockHttpServletResponse(), (inner, ignored) -> {
+                    nested[0] = perform("/api/cards/all");
+                    nested[1] = perform("/api/cards/transfer");
+                });
+
+        loadSheddingFilter.doFilter(request("/api/cards"), new MockHttpServletResponse(), twoInFlight);
+
+        assertEquals(503, nested[0].getStatus());
+        assertEquals("1", nested[0].getHeader("Retry-After"));
+        assertTrue(nested[0].getContentAsString().contains("overloaded"));
+        assertEquals(200, nested[1].getStatus());
+        assertEquals(1, meterRegistry.get("http.load-shedding.shed").tag("priority", "low").counter().count());
+    }
+
+    @Test
+    void onSample_SlowOrPoolQueued_BacksOffOncePerTarget() {
+        long now = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        long slow = TimeUnit.MILLISECONDS.toNanos(500);
+
+        loadSheddingFilter.onSample(LoadSheddingFilter.Priority.NORMAL, slow, 0, now);
+        assertEquals(2.0, loadSheddingFilter.getLimit());
+
+        loadSheddingFilter.onSample(LoadSheddingFilter.Priority.CRITICAL, slow, 0, now + 1);
+        assertEquals(2.0, loadSheddingFilter.getLimit());
+
+        ReflectionTestUtils.setField(loadSheddingFilter, "initialLimit", 8);
+        loadSheddingFilter.init();
+        loadSheddingFilter.onSample(LoadSheddingFilter.Priority.NORMAL, 0, 3, now + TimeUnit.MILLISECONDS.toNanos(100));
+        assertEquals(4.0, loadSheddingFilter.getLimit());
+        assertEquals(4.0, meterRegistry.get("http.load-shedding.limit").gauge().value());
+    }
+
+    @Test
+    void onSample_Fast_GrowsOnlyWhileHalfTheLimitIsInUse() throws Exception {
+        FilterChain fastSamples = (request, response) -> {
+            for (int i = 0; i < 10; i++) {
+                loadSheddingFilter.onSample(LoadSheddingFilter.Priority.NORMAL,
+                        TimeUnit.MILLISECONDS.toNanos(5), 0, System.nanoTime());
+            }
+        };
+
+        loadSheddingFilter.doFilter(request("/api/cards"), new MockHttpServletResponse(),
+                (request, response) -> loadSheddingFilter.doFilter(request("/api/cards/1"), response, fastSamples));
+
+        assertEquals(5.0, loadSheddingFilter.getLimit());
+    }
+
+    @Test
+    void onSample_LowPriority_DoesNotMoveTheLimit() throws Exception {
+        long slow = TimeUnit.MILLISECONDS.toNanos(500);
+        loadSheddingFilter.onSample(LoadSheddingFilter.Priority.LOW, slow, 3, System.nanoTime() + TimeUnit.SECONDS.toNanos(1));
+        assertEquals(4.0, loadSheddingFilter.getLimit());
+
+        FilterChain fastSamples = (request, response) -> {
+            for (int i = 0; i < 10; i++) {
+                loadSheddingFilter.onSample(LoadSheddingFilter.Priority.LOW, 0, 0, System.nanoTime());
+            }
+        };
+        loadSheddingFilter.doFilter(request("/api/users"), new MockHttpServletResponse(),
+                (request, response) -> loadSheddingFilter.doFilter(request("/api/users/1"), response, fastSamples));
+        assertEquals(4.0, loadSheddingFilter.getLimit());
+    }
+
+    @Test
+    void classify_AdminListingsAreLowPriority() {
+        assertEquals(LoadSheddingFilter.Priority.LOW, loadSheddingFilter.classify(request("/api/cards/all/analytics")));
+        assertEquals(LoadSheddingFilter.Priority.LOW, loadSheddingFilter.classify(request("/api/users")));
+        assertEquals(LoadSheddingFilter.Priority.CRITICAL, loadSheddingFilter.classify(request("/api/cards/5/balance")));
+        assertEquals(LoadSheddingFilter.Priority.NORMAL, loadSheddingFilter.classify(request("/api/cards/5")));
+        assertEquals(LoadSheddingFilter.Priority.NORMAL, loadSheddingFilter.classify(request("/api/cards/transfers/7")));
+        assertEquals(LoadSheddingFilter.Priority.NORMAL, loadSheddingFilter.classify(request("/api/cards/allowance")));
+        assertEquals(LoadSheddingFilter.Priority.CRITICAL, loadSheddingFilter.classify(request("/api/cards/transfers/batch")));
+    }
+
+    @Test
+    void doFilter_SamplesDatabaseTimeNotRequestTime() throws Exception {
+        FilterChain slowOutsideDatabase = (request, response) -> {
+            try {
+                Thread.sleep(150);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        loadSheddingFilter.doFilter(request("/api/cards/5"), new MockHttpServletResponse(), slowOutsideDatabase);
+        assertEquals(4.0, loadSheddingFilter.getLimit());
+
+        @SuppressWarnings("unchecked")
+        IMetricsTracker tracker = new DatabaseTimeTracker(mock(ObjectProvider.class)).create("pool", null);
+        loadSheddingFilter.doFilter(request("/api/cards/5"), new MockHttpServletResponse(),
+                (request, response) -> tracker.recordConnectionUsageMillis(150));
+        assertEquals(2.0, loadSheddingFilter.getLimit());
+    }
+
+    private MockHttpServletResponse perform(String uri) throws ServletException, IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        loadSheddingFilter.doFilter(request(uri), response, (request, ignored) -> { });
+        return response;
+    }
+
+    private MockHttpServletRequest request(String uri) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        request.setRequestURI(uri);
+        return request;
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.bankcards.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private RateLimitFilter rateLimitFilter;
+
+    @BeforeEach
+    void setUp() {
+        rateLimitFilter = new RateLimitFilter(new ObjectMapper().registerModule(new JavaTimeModule()), meterRegistry);
+        ReflectionTestUtils.setField(rateLimitFilter, "enabled", true);
+        ReflectionTestUtils.setField(rateLimitFilter, "maxUsers", 2);
+        ReflectionTestUtils.setField(rateLimitFilter, "transferPerSecond", 1.0);
+        ReflectionTestUtils.setField(rateLimitFilter, "transferBurst", 2);
+        ReflectionTestUtils.setField(rateLimitFilter, "balancePerSecond", 100.0);
+        ReflectionTestUtils.setField(rateLimitFilter, "balanceBurst", 100);
+        ReflectionTestUtils.setField(rateLimitFilter, "defaultPerSecond", 100.0);
+        ReflectionTestUtils.setField(rateLimitFilter, "defaultBurst", 100);
+        ReflectionTestUtils.setField(rateLimitFilter, "maxConcurrentPerUser", 1);
+        rateLimitFilter.init();
+        authenticate("user@example.com");
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void transfer_BurstExceeded_Returns429WithRetryAfter() throws Exception {
+        assertEquals(200, perform("/api/cards/transfer").getStatus());
+        assertEquals(200, perform("/api/cards/transfer").getStatus());
+
+        MockHttpServletResponse rejected = perform("/api/cards/transfer");
+
+        assertEquals(429, rejected.getStatus());
+        assertEquals("1", rejected.getHeader("Retry-After"));
+        assertTrue(rejected.getContentAsString().contains("Request rate limit exceeded"));
+        assertEquals(1, meterRegistry.get("http.rate-limit.rejected")
+                .tags("endpoint", "transfer", "reason", "rate").counter().count());
+    }
+
+    @Test
+    void transfer_LimitIsPerEndpointClassAndUser() throws Exception {
+        perform("/api/cards/transfer");
+        perform("/api/cards/transfer");
+
+        assertEquals(200, perform("/api/cards/1/balance").getStatus());
+        authenticate("other@example.com");
+        assertEquals(200, perform("/api/cards/transfer").getStatus());
+    }
+
+    @Test
+    void acquireRate_RefillsAtConfiguredRate() {
+        long now = -TimeUnit.SECONDS.toNanos(5);
+        RateLimitFilter.UserState state = new RateLimitFilter.UserState(now);
+        assertEquals(0, rateLimitFilter.acquireRate(state, RateLimitFilter.EndpointClass.TRANSFER, now));
+        assertEquals(0, rateLimitFilter.acquireRate(state, RateLimitFilter.EndpointClass.TRANSFER, now));
+        assertEquals(TimeUnit.SECONDS.toNanos(1),
+                rateLimitFilter.acquireRate(state, RateLimitFilter.EndpointClass.TRANSFER, now));
+
+        assertEquals(0, rateLimitFilter.acquireRate(state, RateLimitFilter.EndpointClass.TRANSFER,
+                now + TimeUnit.SECONDS.toNanos(1)));
+    }
+
+    @Test
+    void classify_MatchesTransferAndBalancePathsExactly() {
+        assertEquals(RateLimitFilter.EndpointClass.TRANSFER, rateLimitFilter.classify(request("/api/cards/transfer")));
+        assertEquals(RateLimitFilter.EndpointClass.BALANCE, rateLimitFilter.classify(request("/api/cards/42/balance")));
+        assertEquals(RateLimitFilter.EndpointClass.DEFAULT, rateLimitFilter.classify(request("/api/cards/transfers/7")));
+        assertEquals(RateLimitFilter.EndpointClass.DEFAULT, rateLimitFilter.classify(request("/api/cards/transfers/batch")));
+        assertEquals(RateLimitFilter.EndpointClass.DEFAULT, rateLimitFilter.classify(request("/api/users/1/balance")));
+    }
+
+    @Test
+    void fullUserTable_EvictsIdleUsersAndRejectsWhenAllActive() throws Exception {
+        perform("/api/cards/transfer");
+        authenticate("other@example.com");
+        perform("/api/cards/transfer");
+
+        authenticate("third@example.com");
+        MockHttpServletResponse rejected = perform("/api/cards/transfer");
+
+        assertEquals(429, rejected.getStatus());
+        assertTrue(rejected.getContentAsString().contains("Too many active users"));
+
+        long idle = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        assertNotNull(rateLimitFilter.stateOf("third@example.com", idle));
+        assertEquals(1.0, meterRegistry.get("http.rate-limit.users").gauge().value());
+    }
+
+    @Test
+    void concurrentRequestsOverCap_Rejected() throws Exception {
+        MockHttpServletResponse[] nested = new MockHttpServletResponse[1];
+        FilterChain reentrant = (request, response) -> nested[0] = perform("/api/cards");
+
+        rateLimitFilter.doFilter(request("/api/cards"), new MockHttpServletResponse(), reentrant);
+
+        assertEquals(429, nested[0].getStatus());
+        assertEquals(200, perform("/api/cards").getStatus());
+    }
+
+    @Test
+    void anonymousRequest_NotLimited() throws Exception {
+        SecurityContextHolder.clearContext();
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(200, perform("/api/cards/transfer").getStatus());
+        }
+    }
+
+    private MockHttpServletResponse perform(String uri) throws ServletException, IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        rateLimitFilter.doFilter(request(uri), response, (request, ignored) -> { });
+        return response;
+    }
+
+    private MockHttpServletRequest request(String uri) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", uri);
+        request.setRequestURI(uri);
+        return request;
+    }
+
+    private void authenticate(String email) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(email, null, List.of()));
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.exception.BadRequestException;
+import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.security.JwtTokenProvider;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AuthServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    @Mock
+    private JwtTokenProvider tokenProvider;
+
+    @Mock
+    private AuthenticationManager authenticationManager;
+
+    @Mock
+    private TokenRevocationService tokenRevocationService;
+
+    @Mock
+    private RefreshTokenService refreshTokenService;
+
+    @InjectMocks
+    private AuthService authService;
+
+    @Test
+    void logout_ValidTokens_RevokesBoth() {
+        Claims claims = Jwts.claims().id("jti-1").expiration(new Date(System.currentTimeMillis() + 60_000)).build();
+        when(tokenProvider.parseToken("access")).thenReturn(claims);
+
+        authService.logout("access", "refresh");
+
+        verify(refreshTokenService).revoke("refresh");
+        verify(tokenRevocationService).revokeToken(eq("jti-1"), any());
+    }
+
+    @Test
+    void logout_ExpiredAccessToken_StillRevokesRefreshToken() {
+        when(tokenProvider.parseToken("expired")).thenReturn(null);
+
+        authService.logout("expired", "refresh");
+
+        verify(refreshTokenService).revoke("refresh");
+        verify(tokenRevocationService, never()).revokeToken(anyString(), any());
+    }
+
+    @Test
+    void logout_NoUsableToken_BadRequest() {
+        when(tokenProvider.parseToken("expired")).thenReturn(null);
+
+        assertThrows(BadRequestException.class, () -> authService.logout("expired", null));
+
+        verifyNoInteractions(refreshTokenService, tokenRevocationService);
+    }
+}
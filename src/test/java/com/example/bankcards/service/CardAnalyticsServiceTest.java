@@ -0,0 +1,179 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.response.AnalyticsRow;
+import com.example.bankcards.dto.response.CardAnalyticsResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class CardAnalyticsServiceTest {
+
+    private final Connection snapshotHolder = mock(Connection.class);
+    private final List<AnalyticsRow> rows = List.of(AnalyticsRow.builder()
+            .key("ACTIVE").cardCount(2).totalBalance(new BigDecimal("300.00")).build());
+
+    private CardAnalyticsService cardAnalyticsService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        cardAnalyticsService = spy(new CardAnalyticsService(mock(DataSource.class)));
+        ReflectionTestUtils.setField(cardAnalyticsService, "parallelism", 4);
+        ReflectionTestUtils.setField(cardAnalyticsService, "latencyBudgetMs", 300L);
+        ReflectionTestUtils.setField(cardAnalyticsService, "cacheTtlSeconds", 60L);
+        ReflectionTestUtils.setField(cardAnalyticsService, "partialCacheTtlSeconds", 0L);
+        cardAnalyticsService.init();
+
+        doReturn(snapshotHolder).when(cardAnalyticsService).openSnapshotTransaction();
+        doReturn("00000003-0000001B-1").when(cardAnalyticsService).exportSnapshot(snapshotHolder);
+        doReturn(rows).when(cardAnalyticsService).runAggregate(any(), eq("00000003-0000001B-1"), anyLong());
+    }
+
+    @AfterEach
+    void tearDown() {
+        cardAnalyticsService.shutdown();
+    }
+
+    @Test
+    void getAnalytics_AllAggregatesShareSnapshot() throws Exception {
+        CardAnalyticsResponse response = cardAnalyticsService.getAnalytics();
+
+        assertTrue(response.isComplete());
+        assertEquals(List.of("byStatus", "byOwnerCohort", "byExpiryMonth", "balanceDistribution"),
+                List.copyOf(response.getAggregates().keySet()));
+        assertEquals(rows, response.getAggregates().get("byStatus"));
+        verify(cardAnalyticsService, times(4)).runAggregate(any(), eq("00000003-0000001B-1"), anyLong());
+        verify(snapshotHolder).rollback();
+        verify(snapshotHolder).close();
+    }
+
+    @Test
+    void getAnalytics_WithinTtl_ServedFromCache() throws Exception {
+        CardAnalyticsResponse first = cardAnalyticsService.getAnalytics();
+        CardAnalyticsResponse second = cardAnalyticsService.getAnalytics();
+
+        assertSame(first, second);
+        verify(cardAnalyticsService, times(1)).exportSnapshot(any());
+    }
+
+    @Test
+    void getAnalytics_SlowAggregate_ReportedAsTimedOut() throws Exception {
+        doAnswer(invocation -> {
+            Thread.sleep(5_000);
+            return rows;
+        }).when(cardAnalyticsService).runAggregate(eq(CardAnalyticsService.Aggregate.BY_EXPIRY_MONTH), any(), anyLong());
+
+        long started = System.nanoTime();
+        CardAnalyticsResponse response = cardAnalyticsService.getAnalytics();
+
+        assertTrue(System.nanoTime() - started < 2_000_000_000L);
+        assertFalse(response.isComplete());
+        assertEquals(List.of("byExpiryMonth"), response.getTimedOut());
+        assertEquals(3, response.getAggregates().size());
+    }
+
+    @Test
+    void getAnalytics_StaleReport_ServedWhileRefreshedInBackground() throws Exception {
+        doAnswer(invocation -> {
+            Thread.sleep(5_000);
+            return rows;
+        }).when(cardAnalyticsService).runAggregate(eq(CardAnalyticsService.Aggregate.BY_EXPIRY_MONTH), any(), anyLong());
+
+        CardAnalyticsResponse first = cardAnalyticsService.getAnalytics();
+        long started = System.nanoTime();
+        CardAnalyticsResponse second = cardAnalyticsService.getAnalytics();
+
+        assertTrue(System.nanoTime() - started < 100_000_000L);
+        assertFalse(first.isComplete());
+        assertSame(first, second);
+        verify(cardAnalyticsService, timeout(2_000).times(2)).exportSnapshot(any());
+    }
+
+    @Test
+    void getAnalytics_ConcurrentStaleReads_RefreshOnce() throws Exception {
+        ReflectionTestUtils.setField(cardAnalyticsService, "cacheTtlSeconds", 0L);
+        CountDownLatch release = new CountDownLatch(1);
+        cardAnalyticsService.getAnalytics();
+        doAnswer(invocation -> {
+            release.await();
+            return rows;
+        }).when(cardAnalyticsService).runAggregate(any(), any(), anyLong());
+
+        try {
+            for (int i = 0; i < 5; i++) {
+                cardAnalyticsService.getAnalytics();
+            }
+            verify(cardAnalyticsService, timeout(2_000).times(2)).exportSnapshot(any());
+        } finally {
+            release.countDown();
+        }
+        verify(cardAnalyticsService, after(200).times(2)).exportSnapshot(any());
+    }
+
+    @Test
+    void refreshViews_RefreshesEachViewConcurrently() throws Exception {
+        DataSource dataSource = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        Statement statement = mock(Statement.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.createStatement()).thenReturn(statement);
+
+        new CardAnalyticsService(dataSource).refreshViews();
+
+        verify(statement).execute("REFRESH MATERIALIZED VIEW CONCURRENTLY card_expiry_month_totals");
+        verify(statement).execute("REFRESH MATERIALIZED VIEW CONCURRENTLY card_balance_buckets");
+        verify(connection).close();
+    }
+
+    @Test
+    void getAnalytics_WorkersHeldByUncancellableQuery_ReportsTimedOut() throws Exception {
+        cardAnalyticsService.shutdown();
+        ReflectionTestUtils.setField(cardAnalyticsService, "parallelism", 1);
+        cardAnalyticsService.init();
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            // A JDBC call does not react to interruption
+            while (true) {
+                try {
+                    release.await();
+                    return rows;
+                } catch (InterruptedException ignored) {
+                    // keep running like a statement that was not cancelled
+                }
+            }
+        }).when(cardAnalyticsService).runAggregate(eq(CardAnalyticsService.Aggregate.BY_STATUS), any(), anyLong());
+
+        try {
+            cardAnalyticsService.getAnalytics();
+            cardAnalyticsService.refresh();
+            CardAnalyticsResponse second = cardAnalyticsService.getAnalytics();
+
+            assertFalse(second.isComplete());
+            assertEquals(4, second.getTimedOut().size());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void runAggregate_BudgetSpent_DoesNotOpenConnection() {
+        DataSource dataSource = mock(DataSource.class);
+        CardAnalyticsService service = new CardAnalyticsService(dataSource);
+
+        assertThrows(SQLTimeoutException.class, () -> service.runAggregate(
+                CardAnalyticsService.Aggregate.BY_STATUS, "00000003-0000001B-1", System.nanoTime() - 1));
+        verifyNoInteractions(dataSource);
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.response.BalanceSummaryResponse;
+import com.example.bankcards.entity.*;
+import com.example.bankcards.repository.CardBalanceSummaryRepository;
+import com.example.bankcards.repository.StatusTotals;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CardBalanceSummaryServiceTest {
+
+    @Mock
+    private CardBalanceSummaryRepository summaryRepository;
+
+    @InjectMocks
+    private CardBalanceSummaryService summaryService;
+
+    @Test
+    void getOwnerSummary_SumsStatuses() {
+        when(summaryRepository.findByIdOwnerId(1L)).thenReturn(List.of(
+                summary(1L, CardStatus.BLOCKED, 1, "50.00"),
+                summary(1L, CardStatus.ACTIVE, 2, "1500.00"),
+                summary(1L, CardStatus.EXPIRED, 0, "0.00")));
+
+        BalanceSummaryResponse response = summaryService.getOwnerSummary(1L);
+
+        assertEquals(3, response.getCardCount());
+        assertEquals(new BigDecimal("1550.00"), response.getTotalBalance());
+        assertEquals(2, response.getByStatus().size());
+        assertEquals(CardStatus.ACTIVE, response.getByStatus().get(0).getStatus());
+    }
+
+    @Test
+    void getGlobalSummary_SumsOwnerRowsByStatus() {
+        StatusTotals expired = totals(CardStatus.EXPIRED, 0L, "0.00");
+        StatusTotals active = totals(CardStatus.ACTIVE, 5L, "2500.00");
+        when(summaryRepository.sumByStatus()).thenReturn(List.of(expired, active));
+
+        BalanceSummaryResponse response = summaryService.getGlobalSummary();
+
+        assertEquals(5, response.getCardCount());
+        assertEquals(new BigDecimal("2500.00"), response.getTotalBalance());
+        assertEquals(1, response.getByStatus().size());
+    }
+
+    @Test
+    void cardAdded_UpdatesOnlyOwnerRow() {
+        summaryService.cardAdded(card(CardStatus.ACTIVE, "100.00"));
+
+        verify(summaryRepository).add(1L, "ACTIVE", 1, new BigDecimal("100.00"));
+        verifyNoMoreInteractions(summaryRepository);
+    }
+
+    @Test
+    void statusChanged_UpsertsInOwnerStatusOrder() {
+        summaryService.statusChanged(card(CardStatus.ACTIVE, "100.00"), CardStatus.BLOCKED);
+
+        InOrder inOrder = inOrder(summaryRepository);
+        inOrder.verify(summaryRepository).add(1L, "ACTIVE", 1, new BigDecimal("100.00"));
+        inOrder.verify(summaryRepository).add(1L, "BLOCKED", -1, new BigDecimal("-100.00"));
+    }
+
+    @Test
+    void statusChanged_SameStatus_NoWrites() {
+        summaryService.statusChanged(card(CardStatus.ACTIVE, "100.00"), CardStatus.ACTIVE);
+
+        verifyNoInteractions(summaryRepository);
+    }
+
+    @Test
+    void statusChanged_Batch_SumsDeltasAndUpsertsEachRowOnceInOrder() {
+        Card first = card(CardStatus.EXPIRED, "100.00");
+        Card second = card(CardStatus.EXPIRED, "50.00");
+        Card otherOwner = card(CardStatus.EXPIRED, "10.00");
+        otherOwner.setOwner(User.builder().id(2L).build());
+
+        summaryService.statusChanged(List.of(
+                new CardBalanceSummaryService.StatusChange(otherOwner, CardStatus.BLOCKED),
+                new CardBalanceSummaryService.StatusChange(first, CardStatus.ACTIVE),
+                new CardBalanceSummaryService.StatusChange(second, CardStatus.ACTIVE)));
+
+        InOrder inOrder = inOrder(summaryRepository);
+        inOrder.verify(summaryRepository).add(1L, "ACTIVE", -2, new BigDecimal("-150.00"));
+        inOrder.verify(summaryRepository).add(1L, "EXPIRED", 2, new BigDecimal("150.00"));
+        inOrder.verify(summaryRepository).add(2L, "BLOCKED", -1, new BigDecimal("-10.00"));
+        inOrder.verify(summaryRepository).add(2L, "EXPIRED", 1, new BigDecimal("10.00"));
+        verifyNoMoreInteractions(summaryRepository);
+    }
+
+    @Test
+    void ownerRemoved_DeletesOwnerRows() {
+        summaryService.ownerRemoved(1L);
+
+        verify(summaryRepository).deleteByOwnerId(1L);
+        verifyNoMoreInteractions(summaryRepository);
+    }
+
+    private Card card(CardStatus status, String balance) {
+        return Card.builder()
+                .id(10L)
+                .owner(User.builder().id(1L).build())
+                .status(status)
+                .balance(new BigDecimal(balance))
+                .build();
+    }
+
+    private StatusTotals totals(CardStatus status, Long count, String balance) {
+        StatusTotals totals = mock(StatusTotals.class);
+        when(totals.getStatus()).thenReturn(status);
+        when(totals.getCardCount()).thenReturn(count);
+        when(totals.getTotalBalance()).thenReturn(new BigDecimal(balance));
+        return totals;
+    }
+
+    private CardBalanceSummary summary(Long ownerId, CardStatus status, long count, String balance) {
+        return CardBalanceSummary.builder()
+                .id(new CardBalanceSummaryId(ownerId, status))
+                .cardCount(count)
+                .totalBalance(new BigDecimal(balance))
+                .build();
+    }
+}
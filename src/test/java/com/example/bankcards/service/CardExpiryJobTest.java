@@ -0,0 +1,71 @@
+package com.example.bankcards.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class CardExpiryJobTest {
+
+    private final CardExpiryService cardExpiryService = mock(CardExpiryService.class);
+    private final SchedulerLockService schedulerLockService = mock(SchedulerLockService.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private CardExpiryJob cardExpiryJob;
+
+    @BeforeEach
+    void setUp() {
+        cardExpiryJob = new CardExpiryJob(cardExpiryService, schedulerLockService, meterRegistry);
+        ReflectionTestUtils.setField(cardExpiryJob, "chunkSize", 100);
+        ReflectionTestUtils.setField(cardExpiryJob, "lockAtMostFor", Duration.ofMinutes(10));
+    }
+
+    @Test
+    void expireCards_ProcessesChunksUntilShortOne() {
+        when(schedulerLockService.tryLock(eq(CardExpiryService.EXPIRY_JOB), any())).thenReturn(true);
+        when(cardExpiryService.expireNextChunk(any(), eq(100))).thenReturn(100, 100, 7);
+
+        cardExpiryJob.expireCards();
+
+        verify(cardExpiryService, times(3)).expireNextChunk(any(), eq(100));
+        verify(schedulerLockService).unlock(CardExpiryService.EXPIRY_JOB);
+        assertEquals(207, meterRegistry.get("scheduler.job.cards").counter().count());
+    }
+
+    @Test
+    void expireCards_LeaseHeldElsewhere_Skips() {
+        when(schedulerLockService.tryLock(eq(CardExpiryService.EXPIRY_JOB), any())).thenReturn(false);
+
+        cardExpiryJob.expireCards();
+
+        verifyNoInteractions(cardExpiryService);
+        verify(schedulerLockService, never()).unlock(any());
+    }
+
+    @Test
+    void expireCards_LeaseLost_StopsAfterCurrentChunk() {
+        when(schedulerLockService.tryLock(eq(CardExpiryService.EXPIRY_JOB), any())).thenReturn(true, false);
+        when(cardExpiryService.expireNextChunk(any(), eq(100))).thenReturn(100);
+
+        cardExpiryJob.expireCards();
+
+        verify(cardExpiryService, times(1)).expireNextChunk(any(), eq(100));
+    }
+
+    @Test
+    void collectExpiryNotices_ChunkFails_ReleasesLease() {
+        when(schedulerLockService.tryLock(eq(CardExpiryService.NOTICE_JOB), any())).thenReturn(true);
+        when(cardExpiryService.collectNextNoticeChunk(any(), eq(100))).thenThrow(new IllegalStateException("db down"));
+
+        assertDoesNotThrow(() -> cardExpiryJob.collectExpiryNotices());
+
+        verify(schedulerLockService).unlock(CardExpiryService.NOTICE_JOB);
+    }
+}
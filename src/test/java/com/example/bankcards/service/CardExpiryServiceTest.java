@@ -0,0 +1,130 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.CardStatus;
+import com.example.bankcards.entity.JobCheckpoint;
+import com.example.bankcards.repository.CardExpiryNoticeRepository;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.JobCheckpointRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CardExpiryServiceTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 3, 1);
+
+    @Mock
+    private CardRepository cardRepository;
+
+    @Mock
+    private CardExpiryNoticeRepository cardExpiryNoticeRepository;
+
+    @Mock
+    private JobCheckpointRepository jobCheckpointRepository;
+
+    @Mock
+    private CardBalanceSummaryService summaryService;
+
+    @Mock
+    private UserService userService;
+
+    @InjectMocks
+    private CardExpiryService cardExpiryService;
+
+    @Test
+    void expireNextChunk_ResumesFromCheckpoint() {
+        when(jobCheckpointRepository.findById(CardExpiryService.EXPIRY_JOB))
+                .thenReturn(Optional.of(checkpoint(CardExpiryService.EXPIRY_JOB, TODAY, 40L, false)));
+        Card first = card(41L);
+        Card second = card(57L);
+        when(cardRepository.findExpiredAfter(40L, TODAY, PageRequest.of(0, 2))).thenReturn(List.of(first, second));
+
+        assertEquals(2, cardExpiryService.expireNextChunk(TODAY, 2));
+
+        assertEquals(CardStatus.EXPIRED, first.getStatus());
+        assertEquals(CardStatus.EXPIRED, second.getStatus());
+        InOrder inOrder = inOrder(cardRepository, summaryService);
+        inOrder.verify(cardRepository).saveAll(List.of(first, second));
+        inOrder.verify(summaryService).statusChanged(List.of(
+                new CardBalanceSummaryService.StatusChange(first, CardStatus.ACTIVE),
+                new CardBalanceSummaryService.StatusChange(second, CardStatus.ACTIVE)));
+        verify(summaryService, never()).statusChanged(any(Card.class), any());
+        JobCheckpoint saved = savedCheckpoint();
+        assertEquals(57L, saved.getLastId());
+        assertFalse(saved.isCompleted());
+    }
+
+    @Test
+    void expireNextChunk_CheckpointFromEarlierDay_StartsOver() {
+        when(jobCheckpointRepository.findById(CardExpiryService.EXPIRY_JOB))
+                .thenReturn(Optional.of(checkpoint(CardExpiryService.EXPIRY_JOB, TODAY.minusDays(1), 900L, true)));
+        when(cardRepository.findExpiredAfter(0L, TODAY, PageRequest.of(0, 2))).thenReturn(List.of(card(3L)));
+
+        assertEquals(1, cardExpiryService.expireNextChunk(TODAY, 2));
+
+        JobCheckpoint saved = savedCheckpoint();
+        assertEquals(TODAY, saved.getRunDate());
+        assertEquals(3L, saved.getLastId());
+        assertTrue(saved.isCompleted());
+    }
+
+    @Test
+    void expireNextChunk_CompletedToday_NoScan() {
+        when(jobCheckpointRepository.findById(CardExpiryService.EXPIRY_JOB))
+                .thenReturn(Optional.of(checkpoint(CardExpiryService.EXPIRY_JOB, TODAY, 900L, true)));
+
+        assertEquals(0, cardExpiryService.expireNextChunk(TODAY, 2));
+
+        verifyNoInteractions(cardRepository);
+        verify(jobCheckpointRepository, never()).save(any());
+    }
+
+    @Test
+    void collectNextNoticeChunk_InsertsNoticesForWindow() {
+        when(jobCheckpointRepository.findById(CardExpiryService.NOTICE_JOB)).thenReturn(Optional.empty());
+        when(cardRepository.findIdsExpiringAfter(0L, TODAY, TODAY.plusDays(30), PageRequest.of(0, 2)))
+                .thenReturn(List.of(5L, 8L));
+
+        ReflectionTestUtils.setField(cardExpiryService, "noticeDays", 30);
+        assertEquals(2, cardExpiryService.collectNextNoticeChunk(TODAY, 2));
+
+        verify(cardExpiryNoticeRepository).insertMissing(List.of(5L, 8L));
+        assertEquals(8L, savedCheckpoint().getLastId());
+    }
+
+    private JobCheckpoint savedCheckpoint() {
+        ArgumentCaptor<JobCheckpoint> captor = ArgumentCaptor.forClass(JobCheckpoint.class);
+        verify(jobCheckpointRepository).save(captor.capture());
+        return captor.getValue();
+    }
+
+    private JobCheckpoint checkpoint(String job, LocalDate runDate, long lastId, boolean completed) {
+        return JobCheckpoint.builder().jobName(job).runDate(runDate).lastId(lastId).completed(completed).build();
+    }
+
+    private Card card(Long id) {
+        return Card.builder()
+                .id(id)
+                .expiryDate(TODAY.minusDays(1))
+                .status(CardStatus.ACTIVE)
+                .balance(new BigDecimal("10.00"))
+                .build();
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.repository.CardFingerprintRepository;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.JobCheckpointRepository;
+import com.example.bankcards.util.EncryptionUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CardFingerprintServiceTest {
+
+    private final CardFingerprintRepository cardFingerprintRepository = mock(CardFingerprintRepository.class);
+    private final EncryptionUtil encryptionUtil = spy(new EncryptionUtil());
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private CardFingerprintService cardFingerprintService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(encryptionUtil, "secretKey", "TestAES256SecretKey32BytesLong!!");
+        ReflectionTestUtils.setField(encryptionUtil, "fingerprintKey", "TestFingerprintHmacKey");
+        encryptionUtil.init();
+
+        cardFingerprintService = new CardFingerprintService(cardFingerprintRepository, mock(CardRepository.class),
+                mock(JobCheckpointRepository.class), encryptionUtil, jdbcTemplate, meterRegistry);
+        ReflectionTestUtils.setField(cardFingerprintService, "expectedCards", 1_000L);
+        ReflectionTestUtils.setField(cardFingerprintService, "falsePositiveRate", 0.01);
+        ReflectionTestUtils.setField(cardFingerprintService, "maxAttempts", 3);
+        cardFingerprintService.init();
+    }
+
+    @Test
+    void tryRegister_InsertsFingerprintRow() {
+        when(cardFingerprintRepository.insertIfAbsent(fingerprint("4111111111111111"), 7L)).thenReturn(1);
+
+        assertTrue(cardFingerprintService.tryRegister(7L, "4111111111111111"));
+        assertEquals(1, meterRegistry.get("cards.fingerprint.bloom.entries").gauge().value());
+    }
+
+    @Test
+    void tryRegister_NumberAlreadyHeld_ReturnsFalse() {
+        when(cardFingerprintRepository.insertIfAbsent(fingerprint("4111111111111111"), 7L)).thenReturn(0);
+
+        assertFalse(cardFingerprintService.tryRegister(7L, "4111111111111111"));
+    }
+
+    @Test
+    void generateUniqueCardNumber_RegisteredNumber_Regenerated() {
+        cardFingerprintService.tryRegister(7L, "4111111111111111");
+        when(cardFingerprintRepository.existsById(fingerprint("4111111111111111"))).thenReturn(true);
+        doReturn("4111111111111111", "4222222222222222").when(encryptionUtil).generateCardNumber();
+
+        assertEquals("4222222222222222", cardFingerprintService.generateUniqueCardNumber());
+        assertEquals(1, meterRegistry.get("cards.fingerprint.bloom.hits").counter().count());
+        assertEquals(0, meterRegistry.get("cards.fingerprint.bloom.false-positives").counter().count());
+    }
+
+    @Test
+    void generateUniqueCardNumber_FilterHitNotInTable_Accepted() {
+        cardFingerprintService.tryRegister(7L, "4111111111111111");
+        when(cardFingerprintRepository.existsById(fingerprint("4111111111111111"))).thenReturn(false);
+        doReturn("4111111111111111").when(encryptionUtil).generateCardNumber();
+
+        assertEquals("4111111111111111", cardFingerprintService.generateUniqueCardNumber());
+        verify(encryptionUtil, times(1)).generateCardNumber();
+        assertEquals(1, meterRegistry.get("cards.fingerprint.bloom.false-positives").counter().count());
+    }
+
+    @Test
+    void generateUniqueCardNumber_EveryAttemptTaken_Fails() {
+        cardFingerprintService.tryRegister(7L, "4111111111111111");
+        when(cardFingerprintRepository.existsById(fingerprint("4111111111111111"))).thenReturn(true);
+        doReturn("4111111111111111").when(encryptionUtil).generateCardNumber();
+
+        assertThrows(IllegalStateException.class, cardFingerprintService::generateUniqueCardNumber);
+        verify(encryptionUtil, times(3)).generateCardNumber();
+        verify(cardFingerprintRepository, times(3)).existsById(fingerprint("4111111111111111"));
+        assertEquals(3, meterRegistry.get("cards.fingerprint.bloom.hits").counter().count());
+    }
+
+    @Test
+    void rebuild_MoreFingerprintsThanExpected_SizedWithHeadroom() {
+        when(jdbcTemplate.queryForObject("SELECT count(*) FROM card_fingerprints", Long.class)).thenReturn(5_000L);
+
+        cardFingerprintService.rebuild();
+
+        assertEquals(10_000, meterRegistry.get("cards.fingerprint.bloom.capacity").gauge().value());
+    }
+
+    @Test
+    void rebuild_FewerFingerprintsThanExpected_KeepsExpectedSize() {
+        when(jdbcTemplate.queryForObject("SELECT count(*) FROM card_fingerprints", Long.class)).thenReturn(10L);
+
+        cardFingerprintService.rebuild();
+
+        assertEquals(1_000, meterRegistry.get("cards.fingerprint.bloom.capacity").gauge().value());
+    }
+
+    private String fingerprint(String cardNumber) {
+        return Base64.getEncoder().encodeToString(encryptionUtil.fingerprint(cardNumber));
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.bankcards.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CardLanesTest {
+
+    @Test
+    void execute_Disabled_RunsWithoutLocking() {
+        CardLanes cardLanes = cardLanes(false, 64);
+
+        assertEquals("done", cardLanes.execute(1L, 2L, () -> "done"));
+    }
+
+    @Test
+    void execute_SameCard_SerializesTransfers() throws InterruptedException {
+        CardLanes cardLanes = cardLanes(true, 64);
+        AtomicInteger inside = new AtomicInteger();
+        AtomicInteger maxInside = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(8);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        for (long i = 0; i < 8; i++) {
+            long otherCardId = 100 + i;
+            executor.execute(() -> {
+                cardLanes.execute(1L, otherCardId, () -> {
+                    maxInside.accumulateAndGet(inside.incrementAndGet(), Math::max);
+                    sleep();
+                    return inside.decrementAndGet();
+                });
+                done.countDown();
+            });
+        }
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        executor.shutdown();
+        assertEquals(1, maxInside.get());
+    }
+
+    @Test
+    void execute_OppositeDirections_NoDeadlock() throws InterruptedException {
+        CardLanes cardLanes = cardLanes(true, 64);
+        CountDownLatch done = new CountDownLatch(2);
+
+        Thread forward = new Thread(() -> repeat(() -> cardLanes.execute(1L, 2L, () -> 0), done));
+        Thread backward = new Thread(() -> repeat(() -> cardLanes.execute(2L, 1L, () -> 0), done));
+        forward.start();
+        backward.start();
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void laneOf_SequentialIds_SpreadAcrossLanes() {
+        CardLanes cardLanes = cardLanes(true, 50);
+        Set<Integer> used = new HashSet<>();
+
+        for (long id = 1; id <= 1000; id++) {
+            int lane = cardLanes.laneOf(id);
+            assertTrue(lane >= 0 && lane < 64);
+            used.add(lane);
+        }
+
+        assertEquals(64, used.size());
+    }
+
+    private CardLanes cardLanes(boolean enabled, int laneCount) {
+        CardLanes cardLanes = new CardLanes();
+        ReflectionTestUtils.setField(cardLanes, "enabled", enabled);
+        ReflectionTestUtils.setField(cardLanes, "laneCount", laneCount);
+        cardLanes.init();
+        return cardLanes;
+    }
+
+    private static void repeat(Runnable action, CountDownLatch done) {
+        for (int i = 0; i < 10_000; i++) {
+            action.run();
+        }
+        done.countDown();
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(5);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
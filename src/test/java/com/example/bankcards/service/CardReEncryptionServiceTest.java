@@ -0,0 +1,188 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.entity.JobCheckpoint;
+import com.example.bankcards.entity.JwtSigningKey;
+import com.example.bankcards.repository.CardCiphertext;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.JobCheckpointRepository;
+import com.example.bankcards.repository.JwtSigningKeyRepository;
+import com.example.bankcards.util.EncryptionUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class CardReEncryptionServiceTest {
+
+    private final CardRepository cardRepository = mock(CardRepository.class);
+    private final JobCheckpointRepository jobCheckpointRepository = mock(JobCheckpointRepository.class);
+    private final JwtSigningKeyRepository jwtSigningKeyRepository = mock(JwtSigningKeyRepository.class);
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final List<Object[]> updated = new ArrayList<>();
+
+    private EncryptionUtil encryptionUtil;
+    private CardReEncryptionService cardReEncryptionService;
+
+    @BeforeEach
+    void setUp() {
+        encryptionUtil = new EncryptionUtil();
+        ReflectionTestUtils.setField(encryptionUtil, "secretKey", "TestAES256SecretKey32BytesLong!!");
+        ReflectionTestUtils.setField(encryptionUtil, "fingerprintKey", "TestFingerprintHmacKey");
+        ReflectionTestUtils.setField(encryptionUtil, "keys", "v2=AnotherAES256SecretKey32Bytes!!");
+        ReflectionTestUtils.setField(encryptionUtil, "activeKeyId", "v2");
+        encryptionUtil.init();
+
+        cardReEncryptionService = new CardReEncryptionService(
+                cardRepository, jobCheckpointRepository, jwtSigningKeyRepository, encryptionUtil, jdbcTemplate);
+        ReflectionTestUtils.setField(cardReEncryptionService, "parallelism", 2);
+        cardReEncryptionService.init();
+
+        when(jobCheckpointRepository.findById("card-reencryption:v2")).thenReturn(Optional.empty());
+    }
+
+    @AfterEach
+    void tearDown() {
+        cardReEncryptionService.shutdown();
+    }
+
+    @Test
+    void reEncryptNextChunk_RewritesRowsWithActiveKey() {
+        String legacy = "v1:" + legacyCiphertext("4111111111111111");
+        when(cardRepository.findCiphertextsNotWithKeyAfter(0L, "v2:%", PageRequest.of(0, 3)))
+                .thenReturn(List.of(row(5L, legacy), row(9L, legacyCiphertext("4222222222222222"))));
+        stubBatchUpdate(1, 1);
+
+        assertEquals(2, cardReEncryptionService.reEncryptNextChunk(3));
+
+        assertEquals(2, updated.size());
+        assertTrue(((String) updated.get(0)[0]).startsWith("v2:"));
+        assertEquals("4111111111111111", encryptionUtil.decrypt((String) updated.get(0)[0]));
+        assertArrayEquals(new Object[]{1L, 5L, 3L}, new Object[]{updated.get(0)[1], updated.get(0)[2], updated.get(0)[3]});
+        JobCheckpoint checkpoint = savedCheckpoint();
+        assertEquals(9L, checkpoint.getLastId());
+        assertTrue(checkpoint.isCompleted());
+    }
+
+    @Test
+    void reEncryptNextChunk_UndecryptableRowLeft_PassStartsOver() {
+        when(cardRepository.findCiphertextsNotWithKeyAfter(0L, "v2:%", PageRequest.of(0, 3)))
+                .thenReturn(List.of(row(5L, legacyCiphertext("4111111111111111")), row(9L, "v1:not-a-ciphertext")));
+        when(cardRepository.countNotWithKey("v2:%")).thenReturn(1L);
+        stubBatchUpdate(1);
+
+        cardReEncryptionService.reEncryptNextChunk(3);
+
+        JobCheckpoint checkpoint = savedCheckpoint();
+        assertEquals(0L, checkpoint.getLastId());
+        assertFalse(checkpoint.isCompleted());
+    }
+
+    @Test
+    void reEncryptNextChunk_NewPass_DropsCheckpointsOfOtherKeys() {
+        when(cardRepository.findCiphertextsNotWithKeyAfter(0L, "v2:%", PageRequest.of(0, 3))).thenReturn(List.of());
+        stubBatchUpdate();
+
+        cardReEncryptionService.reEncryptNextChunk(3);
+
+        verify(jobCheckpointRepository).deleteOthersWithPrefix("card-reencryption:%", "card-reencryption:v2");
+        assertTrue(savedCheckpoint().isCompleted());
+    }
+
+    @Test
+    void reEncryptNextChunk_ExistingPass_KeepsOtherCheckpoints() {
+        when(jobCheckpointRepository.findById("card-reencryption:v2")).thenReturn(Optional.of(
+                JobCheckpoint.builder().jobName("card-reencryption:v2").lastId(4L).build()));
+        when(cardRepository.findCiphertextsNotWithKeyAfter(4L, "v2:%", PageRequest.of(0, 3))).thenReturn(List.of());
+        stubBatchUpdate();
+
+        cardReEncryptionService.reEncryptNextChunk(3);
+
+        verify(jobCheckpointRepository, never()).deleteOthersWithPrefix(anyString(), anyString());
+    }
+
+    @Test
+    void reEncryptNextChunk_ConcurrentlyChangedRow_RetriedInNextChunk() {
+        when(cardRepository.findCiphertextsNotWithKeyAfter(0L, "v2:%", PageRequest.of(0, 2)))
+                .thenReturn(List.of(row(5L, legacyCiphertext("4111111111111111")),
+                        row(9L, legacyCiphertext("4222222222222222"))));
+        stubBatchUpdate(1, 0);
+
+        cardReEncryptionService.reEncryptNextChunk(2);
+
+        JobCheckpoint checkpoint = savedCheckpoint();
+        assertEquals(8L, checkpoint.getLastId());
+        assertFalse(checkpoint.isCompleted());
+    }
+
+    @Test
+    void reEncryptSigningKeys_RewritesKeysWithActiveKey() {
+        String legacy = "v1:" + legacyCiphertext("pkcs8-private-key");
+        when(jwtSigningKeyRepository.findNotWithKey("v2:%")).thenReturn(List.of(
+                JwtSigningKey.builder().id(1L).kid("kid-1").privateKey(legacy).build(),
+                JwtSigningKey.builder().id(2L).kid("kid-2").privateKey("v1:not-a-ciphertext").build()));
+        when(jwtSigningKeyRepository.updatePrivateKey(eq(1L), eq(legacy), anyString())).thenReturn(1);
+
+        assertEquals(1, cardReEncryptionService.reEncryptSigningKeys());
+
+        ArgumentCaptor<String> rewritten = ArgumentCaptor.forClass(String.class);
+        verify(jwtSigningKeyRepository).updatePrivateKey(eq(1L), eq(legacy), rewritten.capture());
+        assertTrue(rewritten.getValue().startsWith("v2:"));
+        assertEquals("pkcs8-private-key", encryptionUtil.decrypt(rewritten.getValue()));
+        verify(jwtSigningKeyRepository, never()).updatePrivateKey(eq(2L), anyString(), anyString());
+    }
+
+    @SuppressWarnings("unchecked")
+    private void stubBatchUpdate(int... counts) {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenAnswer(invocation -> {
+                    updated.addAll(invocation.getArgument(1, List.class));
+                    return new int[][]{counts};
+                });
+    }
+
+    private JobCheckpoint savedCheckpoint() {
+        ArgumentCaptor<JobCheckpoint> captor = ArgumentCaptor.forClass(JobCheckpoint.class);
+        verify(jobCheckpointRepository).save(captor.capture());
+        return captor.getValue();
+    }
+
+    private String legacyCiphertext(String plainText) {
+        EncryptionUtil legacy = new EncryptionUtil();
+        ReflectionTestUtils.setField(legacy, "secretKey", "TestAES256SecretKey32BytesLong!!");
+        ReflectionTestUtils.setField(legacy, "fingerprintKey", "TestFingerprintHmacKey");
+        legacy.init();
+        return legacy.encrypt(plainText).substring("v1:".length());
+    }
+
+    private CardCiphertext row(Long id, String cardNumber) {
+        return new CardCiphertext() {
+            public Long getId() {
+                return id;
+            }
+
+            public Long getOwnerId() {
+                return 1L;
+            }
+
+            public Long getVersion() {
+                return 3L;
+            }
+
+            public String getCardNumber() {
+                return cardNumber;
+            }
+        };
+    }
+}
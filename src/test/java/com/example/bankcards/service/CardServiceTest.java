@@ -1,15 +1,21 @@
 package com.example.bankcards.service;
 
+import com.example.bankcards.dto.request.BatchTransferMode;
+import com.example.bankcards.dto.request.BatchTransferRequest;
 import com.example.bankcards.dto.request.CreateCardRequest;
 import com.example.bankcards.dto.request.TransferRequest;
+import com.example.bankcards.dto.response.BatchTransferResponse;
 import com.example.bankcards.dto.response.CardResponse;
+import com.example.bankcards.dto.response.TransferLegStatus;
 import com.example.bankcards.dto.response.TransferResponse;
 import com.example.bankcards.entity.Card;
 import com.example.bankcards.entity.CardStatus;
 import com.example.bankcards.entity.Role;
 import com.example.bankcards.entity.User;
 import com.example.bankcards.exception.*;
+import com.example.bankcards.repository.CardExpiryNoticeRepository;
 import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.CardVersion;
 import com.example.bankcards.util.EncryptionUtil;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -20,10 +26,14 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -32,12 +42,21 @@ class CardServiceTest {
     @Mock
     private CardRepository cardRepository;
 
+    @Mock
+    private CardExpiryNoticeRepository cardExpiryNoticeRepository;
+
     @Mock
     private UserService userService;
 
     @Mock
     private EncryptionUtil encryptionUtil;
 
+    @Mock
+    private CardBalanceSummaryService summaryService;
+
+    @Mock
+    private CardFingerprintService fingerprintService;
+
     @InjectMocks
     private CardService cardService;
 
@@ -72,7 +91,7 @@ class CardServiceTest {
         );
 
         when(userService.getUserEntityById(1L)).thenReturn(testUser);
-        when(encryptionUtil.generateCardNumber()).thenReturn("4111111111111111");
+        when(fingerprintService.generateUniqueCardNumber()).thenReturn("4111111111111111");
         when(encryptionUtil.encrypt("4111111111111111")).thenReturn("encrypted");
         when(encryptionUtil.maskCardNumber("4111111111111111")).thenReturn("**** **** **** 1111");
         when(cardRepository.save(any(Card.class))).thenAnswer(invocation -> {
@@ -80,6 +99,7 @@ class CardServiceTest {
             card.setId(1L);
             return card;
         });
+        when(fingerprintService.tryRegister(1L, "4111111111111111")).thenReturn(true);
 
         CardResponse response = cardService.createCard(request);
 
@@ -87,6 +107,45 @@ class CardServiceTest {
         assertEquals("**** **** **** 1111", response.getMaskedCardNumber());
         assertEquals(1L, response.getOwnerId());
         verify(cardRepository, times(1)).save(any(Card.class));
+        verify(summaryService).cardAdded(any(Card.class));
+    }
+
+    @Test
+    void createCard_NumberClaimedConcurrently_RetriesWithNewNumber() {
+        CreateCardRequest request = new CreateCardRequest(1L, LocalDate.now().plusYears(3), null);
+
+        when(userService.getUserEntityById(1L)).thenReturn(testUser);
+        when(fingerprintService.generateUniqueCardNumber()).thenReturn("4111111111111111", "4222222222222222");
+        when(encryptionUtil.encrypt("4111111111111111")).thenReturn("encrypted1");
+        when(encryptionUtil.encrypt("4222222222222222")).thenReturn("encrypted2");
+        when(encryptionUtil.maskCardNumber("4222222222222222")).thenReturn("**** **** **** 2222");
+        when(cardRepository.save(any(Card.class))).thenAnswer(invocation -> {
+            Card card = invocation.getArgument(0);
+            card.setId(1L);
+            return card;
+        });
+        when(fingerprintService.tryRegister(1L, "4111111111111111")).thenReturn(false);
+        when(fingerprintService.tryRegister(1L, "4222222222222222")).thenReturn(true);
+
+        CardResponse response = cardService.createCard(request);
+
+        assertEquals("**** **** **** 2222", response.getMaskedCardNumber());
+        verify(summaryService).cardAdded(argThat(card -> "encrypted2".equals(card.getCardNumber())));
+    }
+
+    @Test
+    void createCard_NumberNeverClaimed_Fails() {
+        CreateCardRequest request = new CreateCardRequest(1L, LocalDate.now().plusYears(3), null);
+
+        when(userService.getUserEntityById(1L)).thenReturn(testUser);
+        when(fingerprintService.generateUniqueCardNumber()).thenReturn("4111111111111111");
+        when(encryptionUtil.encrypt("4111111111111111")).thenReturn("encrypted");
+        when(cardRepository.save(any(Card.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(fingerprintService.tryRegister(any(), eq("4111111111111111"))).thenReturn(false);
+
+        assertThrows(IllegalStateException.class, () -> cardService.createCard(request));
+        verify(fingerprintService, times(3)).tryRegister(any(), eq("4111111111111111"));
+        verifyNoInteractions(summaryService);
     }
 
     @Test
@@ -101,6 +160,8 @@ class CardServiceTest {
         assertNotNull(response);
         assertEquals(CardStatus.BLOCKED, testCard.getStatus());
         verify(cardRepository, times(1)).save(testCard);
+        verify(summaryService).statusChanged(testCard, CardStatus.ACTIVE);
+        verify(cardExpiryNoticeRepository).deleteByCardId(1L);
     }
 
     @Test
@@ -249,6 +310,182 @@ class CardServiceTest {
 
         cardService.deleteCard(1L);
 
+        verify(summaryService).cardRemoved(testCard);
+        verify(cardExpiryNoticeRepository).deleteByCardId(1L);
         verify(cardRepository, times(1)).delete(testCard);
     }
+
+    @Test
+    void requestBlockCard_RemovesExpiryNotice() {
+        when(userService.getCurrentUser()).thenReturn(testUser);
+        when(cardRepository.findById(1L)).thenReturn(Optional.of(testCard));
+        when(cardRepository.save(any(Card.class))).thenReturn(testCard);
+        when(encryptionUtil.decrypt("encrypted_card_number")).thenReturn("4111111111111111");
+
+        cardService.requestBlockCard(1L);
+
+        assertEquals(CardStatus.BLOCKED, testCard.getStatus());
+        verify(cardExpiryNoticeRepository).deleteByCardId(1L);
+    }
+
+    @Test
+    void getCardVersion_Owner_ReturnsVersion() {
+        when(cardRepository.findVersionById(1L)).thenReturn(Optional.of(cardVersion(1L, 7L)));
+        when(userService.getCurrentUser()).thenReturn(testUser);
+
+        assertEquals(7L, cardService.getCardVersion(1L));
+        verifyNoInteractions(encryptionUtil);
+    }
+
+    @Test
+    void getCardVersion_OtherOwner_ThrowsException() {
+        when(cardRepository.findVersionById(1L)).thenReturn(Optional.of(cardVersion(2L, 7L)));
+        when(userService.getCurrentUser()).thenReturn(testUser);
+
+        assertThrows(AccessDeniedException.class, () -> cardService.getCardVersion(1L));
+    }
+
+    @Test
+    void getCardVersion_NotFound_ThrowsException() {
+        when(cardRepository.findVersionById(999L)).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () -> cardService.getCardVersion(999L));
+    }
+
+    @Test
+    void batchTransfer_AllOrNothing_AppliesChainedLegs() {
+        Card card1 = activeCard(1L, "1000.00");
+        Card card2 = activeCard(2L, "500.00");
+        Card card3 = activeCard(3L, "0.00");
+        BatchTransferRequest request = new BatchTransferRequest(BatchTransferMode.ALL_OR_NOTHING, List.of(
+                new TransferRequest(1L, 2L, new BigDecimal("200.00")),
+                new TransferRequest(2L, 3L, new BigDecimal("600.00"))));
+
+        when(userService.getCurrentUser()).thenReturn(testUser);
+        when(cardRepository.findAllByOwnerIdAndIdInForUpdate(eq(1L), any()))
+                .thenReturn(List.of(card1, card2, card3));
+
+        BatchTransferResponse response = cardService.batchTransfer(request);
+
+        assertTrue(response.isCommitted());
+        assertEquals(2, response.getCompleted());
+        assertEquals(0, response.getFailed());
+        assertEquals(new BigDecimal("700.00"), response.getResults().get(0).getToCardNewBalance());
+        assertEquals(new BigDecimal("800.00"), card1.getBalance());
+        assertEquals(new BigDecimal("100.00"), card2.getBalance());
+        assertEquals(new BigDecimal("600.00"), card3.getBalance());
+    }
+
+    @Test
+    void batchTransfer_AllOrNothing_FailingLeg_NothingApplied() {
+        Card card1 = activeCard(1L, "1000.00");
+        Card card2 = activeCard(2L, "500.00");
+        BatchTransferRequest request = new BatchTransferRequest(BatchTransferMode.ALL_OR_NOTHING, List.of(
+                new TransferRequest(1L, 2L, new BigDecimal("200.00")),
+                new TransferRequest(2L, 1L, new BigDecimal("900.00"))));
+
+        when(userService.getCurrentUser()).thenReturn(testUser);
+        when(cardRepository.findAllByOwnerIdAndIdInForUpdate(eq(1L), any())).thenReturn(List.of(card1, card2));
+
+        BatchTransferResponse response = cardService.batchTransfer(request);
+
+        assertFalse(response.isCommitted());
+        assertEquals(0, response.getCompleted());
+        assertEquals(1, response.getFailed());
+        assertEquals(TransferLegStatus.NOT_APPLIED, response.getResults().get(0).getStatus());
+        assertEquals(TransferLegStatus.FAILED, response.getResults().get(1).getStatus());
+        assertEquals("Insufficient funds on the source card", response.getResults().get(1).getError());
+        assertEquals(new BigDecimal("1000.00"), card1.getBalance());
+        assertEquals(new BigDecimal("500.00"), card2.getBalance());
+    }
+
+    @Test
+    void batchTransfer_BestEffort_AppliesValidLegs() {
+        Card card1 = activeCard(1L, "1000.00");
+        Card card2 = activeCard(2L, "500.00");
+        BatchTransferRequest request = new BatchTransferRequest(BatchTransferMode.BEST_EFFORT, List.of(
+                new TransferRequest(1L, 99L, new BigDecimal("100.00")),
+                new TransferRequest(1L, 2L, new BigDecimal("300.00"))));
+
+        when(userService.getCurrentUser()).thenReturn(testUser);
+        when(cardRepository.findAllByOwnerIdAndIdInForUpdate(eq(1L), any())).thenReturn(List.of(card1, card2));
+
+        BatchTransferResponse response = cardService.batchTransfer(request);
+
+        assertTrue(response.isCommitted());
+        assertEquals(1, response.getCompleted());
+        assertEquals(1, response.getFailed());
+        assertEquals(TransferLegStatus.FAILED, response.getResults().get(0).getStatus());
+        assertEquals(TransferLegStatus.COMPLETED, response.getResults().get(1).getStatus());
+        assertEquals(new BigDecimal("700.00"), card1.getBalance());
+        assertEquals(new BigDecimal("800.00"), card2.getBalance());
+    }
+
+    @Test
+    void batchTransfer_ForeignCard_FailsWithAccessDenied() {
+        User otherUser = User.builder().id(2L).email("other@example.com").role(Role.USER).build();
+        Card card1 = activeCard(1L, "1000.00");
+        Card foreignCard = activeCard(5L, "500.00");
+        foreignCard.setOwner(otherUser);
+        BatchTransferRequest request = new BatchTransferRequest(BatchTransferMode.BEST_EFFORT, List.of(
+                new TransferRequest(1L, 5L, new BigDecimal("100.00")),
+                new TransferRequest(5L, 1L, new BigDecimal("100.00"))));
+
+        when(userService.getCurrentUser()).thenReturn(testUser);
+        when(cardRepository.findAllByOwnerIdAndIdInForUpdate(eq(1L), any())).thenReturn(List.of(card1));
+        when(cardRepository.findAllById(Set.of(5L))).thenReturn(List.of(foreignCard));
+
+        BatchTransferResponse response = cardService.batchTransfer(request);
+
+        assertEquals(2, response.getFailed());
+        assertEquals("You can only transfer to your own cards", response.getResults().get(0).getError());
+        assertEquals("You can only transfer from your own cards", response.getResults().get(1).getError());
+        assertEquals(new BigDecimal("1000.00"), card1.getBalance());
+        assertEquals(new BigDecimal("500.00"), foreignCard.getBalance());
+    }
+
+    @Test
+    void transferGroup_FailingLeg_DoesNotPoisonOthers() {
+        User otherUser = User.builder().id(2L).email("other@example.com").role(Role.USER).build();
+        Card card1 = activeCard(1L, "1000.00");
+        Card card2 = activeCard(2L, "500.00");
+        GroupedTransfer valid = new GroupedTransfer(testUser, new TransferRequest(1L, 2L, new BigDecimal("100.00")));
+        GroupedTransfer foreign = new GroupedTransfer(otherUser, new TransferRequest(2L, 1L, new BigDecimal("50.00")));
+        GroupedTransfer overdraft = new GroupedTransfer(testUser, new TransferRequest(2L, 1L, new BigDecimal("900.00")));
+
+        when(cardRepository.findAllByIdInForUpdate(any())).thenReturn(List.of(card1, card2));
+
+        cardService.transferGroup(List.of(valid, foreign, overdraft));
+
+        assertEquals(new BigDecimal("900.00"), valid.getResponse().getFromCardNewBalance());
+        assertInstanceOf(AccessDeniedException.class, foreign.getError());
+        assertInstanceOf(InsufficientFundsException.class, overdraft.getError());
+        assertEquals(new BigDecimal("900.00"), card1.getBalance());
+        assertEquals(new BigDecimal("600.00"), card2.getBalance());
+    }
+
+    private Card activeCard(Long id, String balance) {
+        return Card.builder()
+                .id(id)
+                .cardNumber("encrypted" + id)
+                .owner(testUser)
+                .expiryDate(LocalDate.now().plusYears(3))
+                .status(CardStatus.ACTIVE)
+                .balance(new BigDecimal(balance))
+                .build();
+    }
+
+    private CardVersion cardVersion(Long ownerId, Long version) {
+        return new CardVersion() {
+            @Override
+            public Long getOwnerId() {
+                return ownerId;
+            }
+
+            @Override
+            public Long getVersion() {
+                return version;
+            }
+        };
+    }
 }
@@ -0,0 +1,100 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.entity.JwtSigningKey;
+import com.example.bankcards.repository.JwtSigningKeyRepository;
+import com.example.bankcards.util.EncryptionUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JwtKeyServiceTest {
+
+    @Mock
+    private JwtSigningKeyRepository jwtSigningKeyRepository;
+
+    private final List<JwtSigningKey> rows = new ArrayList<>();
+
+    private JwtKeyService jwtKeyService;
+
+    @BeforeEach
+    void setUp() {
+        EncryptionUtil encryptionUtil = new EncryptionUtil();
+        ReflectionTestUtils.setField(encryptionUtil, "secretKey", "TestAES256SecretKey32BytesLong!!");
+        ReflectionTestUtils.setField(encryptionUtil, "fingerprintKey", "TestFingerprintHmacKey");
+        encryptionUtil.init();
+
+        jwtKeyService = new JwtKeyService(jwtSigningKeyRepository, encryptionUtil, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(jwtKeyService, "jwtExpiration", 900_000L);
+        ReflectionTestUtils.setField(jwtKeyService, "rotationInterval", Duration.ofDays(7));
+        ReflectionTestUtils.setField(jwtKeyService, "publishAhead", Duration.ofMinutes(10));
+        ReflectionTestUtils.setField(jwtKeyService, "unknownKidReloadInterval", Duration.ofSeconds(5));
+        jwtKeyService.init();
+
+        lenient().when(jwtSigningKeyRepository.findAllByOrderByGenerationAsc()).thenAnswer(invocation -> List.copyOf(rows));
+        lenient().when(jwtSigningKeyRepository.saveAndFlush(any())).thenAnswer(invocation -> {
+            rows.add(invocation.getArgument(0));
+            return invocation.getArgument(0);
+        });
+    }
+
+    @Test
+    void refresh_NoKeys_CreatesKeyThatSignsImmediately() {
+        jwtKeyService.refresh(LocalDateTime.now());
+
+        assertEquals(1, rows.size());
+        assertEquals(rows.get(0).getKid(), jwtKeyService.signingKey().getKid());
+        assertNotNull(jwtKeyService.publicKey(rows.get(0).getKid()));
+
+        Map<String, Object> jwk = jwtKeyService.jwks().get(0);
+        assertEquals("ES256", jwk.get("alg"));
+        assertEquals(43, ((String) jwk.get("x")).length());
+    }
+
+    @Test
+    void refresh_RotationDue_PublishesSuccessorBeforeItSigns() {
+        LocalDateTime now = LocalDateTime.now();
+        jwtKeyService.refresh(now.minusDays(7));
+        String current = rows.get(0).getKid();
+
+        jwtKeyService.refresh(now);
+
+        assertEquals(2, rows.size());
+        String successor = rows.get(1).getKid();
+        assertEquals(now.plusMinutes(10), rows.get(1).getActiveFrom());
+        assertEquals(current, jwtKeyService.signingKey().getKid());
+        assertNotNull(jwtKeyService.publicKey(successor));
+        assertEquals(2, jwtKeyService.jwks().size());
+    }
+
+    @Test
+    void refresh_PredecessorTokensExpired_RetiresAndDeletesOldKey() {
+        LocalDateTime now = LocalDateTime.now();
+        jwtKeyService.refresh(now.minusDays(8));
+        jwtKeyService.refresh(now.minusDays(1));
+        String retired = rows.get(0).getKid();
+        when(jwtSigningKeyRepository.deleteOlderThan(anyInt())).thenReturn(1);
+
+        jwtKeyService.refresh(now);
+
+        verify(jwtSigningKeyRepository).deleteOlderThan(rows.get(1).getGeneration());
+        assertEquals(rows.get(1).getKid(), jwtKeyService.signingKey().getKid());
+        ReflectionTestUtils.setField(jwtKeyService, "unknownKidReloadInterval", Duration.ofDays(1));
+        assertNull(jwtKeyService.publicKey(retired));
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.entity.RefreshToken;
+import com.example.bankcards.entity.Role;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.exception.InvalidTokenException;
+import com.example.bankcards.repository.RefreshTokenRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RefreshTokenServiceTest {
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private RefreshTokenService refreshTokenService;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        refreshTokenService = new RefreshTokenService(refreshTokenRepository, meterRegistry);
+        ReflectionTestUtils.setField(refreshTokenService, "hashKey", "RefreshTokenHmacKeyThatIsAtLeast32BytesLong");
+        ReflectionTestUtils.setField(refreshTokenService, "expiration", Duration.ofDays(14));
+        refreshTokenService.init();
+
+        user = User.builder().id(1L).email("user@example.com").role(Role.USER).build();
+    }
+
+    @Test
+    void init_MissingOrShortHashKey_Fails() {
+        RefreshTokenService unconfigured = new RefreshTokenService(refreshTokenRepository, meterRegistry);
+        assertThrows(IllegalStateException.class, unconfigured::init);
+
+        ReflectionTestUtils.setField(unconfigured, "hashKey", "short-key");
+        assertThrows(IllegalStateException.class, unconfigured::init);
+    }
+
+    @Test
+    void issue_StoresOnlyTheHash() {
+        String refreshToken = refreshTokenService.issue(user);
+
+        ArgumentCaptor<RefreshToken> saved = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).save(saved.capture());
+        assertEquals(refreshTokenService.hash(refreshToken), saved.getValue().getTokenHash());
+        assertNotEquals(refreshToken, saved.getValue().getTokenHash());
+        assertNotNull(saved.getValue().getFamilyId());
+    }
+
+    @Test
+    void rotate_ValidToken_MarksUsedAndIssuesInSameFamily() {
+        RefreshToken stored = stored("family-1", null, false, LocalDateTime.now().plusDays(1));
+        when(refreshTokenRepository.findByTokenHashForUpdate(refreshTokenService.hash("raw")))
+                .thenReturn(Optional.of(stored));
+
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate("raw");
+
+        assertNotNull(stored.getUsedAt());
+        assertSame(user, rotation.getUser());
+        ArgumentCaptor<RefreshToken> saved = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).save(saved.capture());
+        assertEquals("family-1", saved.getValue().getFamilyId());
+        assertEquals(refreshTokenService.hash(rotation.getRefreshToken()), saved.getValue().getTokenHash());
+    }
+
+    @Test
+    void rotate_UsedToken_RevokesFamily() {
+        RefreshToken stored = stored("family-1", LocalDateTime.now().minusMinutes(1), false,
+                LocalDateTime.now().plusDays(1));
+        when(refreshTokenRepository.findByTokenHashForUpdate(any())).thenReturn(Optional.of(stored));
+
+        assertThrows(InvalidTokenException.class, () -> refreshTokenService.rotate("raw"));
+
+        verify(refreshTokenRepository).revokeFamily("family-1");
+        verify(refreshTokenRepository, never()).save(any());
+        assertEquals(1, meterRegistry.get("auth.refresh.reuse-detected").counter().count());
+    }
+
+    @Test
+    void rotate_ExpiredToken_Rejected() {
+        RefreshToken stored = stored("family-1", null, false, LocalDateTime.now().minusSeconds(1));
+        when(refreshTokenRepository.findByTokenHashForUpdate(any())).thenReturn(Optional.of(stored));
+
+        assertThrows(InvalidTokenException.class, () -> refreshTokenService.rotate("raw"));
+
+        verify(refreshTokenRepository, never()).revokeFamily(any());
+        verify(refreshTokenRepository, never()).save(any());
+    }
+
+    private RefreshToken stored(String familyId, LocalDateTime usedAt, boolean revoked, LocalDateTime expiresAt) {
+        return RefreshToken.builder()
+                .id(10L)
+                .user(user)
+                .tokenHash("hash")
+                .familyId(familyId)
+                .usedAt(usedAt)
+                .revoked(revoked)
+                .expiresAt(expiresAt)
+                .build();
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.entity.TokenRevocation;
+import com.example.bankcards.repository.TokenRevocationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TokenRevocationServiceTest {
+
+    @Mock
+    private TokenRevocationRepository tokenRevocationRepository;
+
+    private TokenRevocationService tokenRevocationService;
+
+    @BeforeEach
+    void setUp() {
+        tokenRevocationService = new TokenRevocationService(tokenRevocationRepository, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(tokenRevocationService, "jwtExpiration", 900_000L);
+        ReflectionTestUtils.setField(tokenRevocationService, "expectedRevocations", 1000L);
+        ReflectionTestUtils.setField(tokenRevocationService, "falsePositiveRate", 0.001);
+        ReflectionTestUtils.setField(tokenRevocationService, "pollOverlap", Duration.ofSeconds(10));
+        tokenRevocationService.init();
+    }
+
+    @Test
+    void isRevoked_UnknownToken_NoDatabaseLookup() {
+        assertFalse(tokenRevocationService.isRevoked(UUID.randomUUID().toString(), "user@example.com",
+                LocalDateTime.now()));
+
+        verifyNoInteractions(tokenRevocationRepository);
+    }
+
+    @Test
+    void revokeToken_FilterHitConfirmedInDatabase() {
+        String jti = UUID.randomUUID().toString();
+        when(tokenRevocationRepository.existsByJti(jti)).thenReturn(true);
+
+        tokenRevocationService.revokeToken(jti, LocalDateTime.now().plusMinutes(15));
+
+        verify(tokenRevocationRepository).insertIfAbsent(eq(jti), any());
+        assertTrue(tokenRevocationService.isRevoked(jti, "user@example.com", LocalDateTime.now()));
+    }
+
+    @Test
+    void revokeSubject_InTransaction_AppliedOnlyAfterCommit() {
+        when(tokenRevocationRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+        LocalDateTime issuedAt = LocalDateTime.now().minusMinutes(1);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            tokenRevocationService.revokeSubject("deleted@example.com");
+
+            assertFalse(tokenRevocationService.isRevoked(UUID.randomUUID().toString(), "deleted@example.com",
+                    issuedAt));
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertTrue(tokenRevocationService.isRevoked(UUID.randomUUID().toString(), "deleted@example.com",
+                issuedAt));
+    }
+
+    @Test
+    void revokeToken_InRolledBackTransaction_NotApplied() {
+        String jti = UUID.randomUUID().toString();
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            tokenRevocationService.revokeToken(jti, LocalDateTime.now().plusMinutes(15));
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertFalse(tokenRevocationService.isRevoked(jti, "user@example.com", LocalDateTime.now()));
+        verify(tokenRevocationRepository, never()).existsByJti(jti);
+    }
+
+    @Test
+    void poll_SubjectRevokedOnOtherNode_RejectsOlderTokensOnly() {
+        LocalDateTime cutoff = LocalDateTime.now();
+        when(tokenRevocationRepository.findByCreatedAtGreaterThanOrderByCreatedAtAsc(any())).thenReturn(List.of(
+                TokenRevocation.builder()
+                        .id(1L)
+                        .subject("deleted@example.com")
+                        .issuedBefore(cutoff)
+                        .expiresAt(cutoff.plusMinutes(15))
+                        .createdAt(cutoff)
+                        .build()));
+
+        tokenRevocationService.poll();
+
+        assertTrue(tokenRevocationService.isRevoked(UUID.randomUUID().toString(), "deleted@example.com",
+                cutoff.minusMinutes(1)));
+        assertFalse(tokenRevocationService.isRevoked(UUID.randomUUID().toString(), "deleted@example.com",
+                cutoff.plusSeconds(1)));
+        assertFalse(tokenRevocationService.isRevoked(UUID.randomUUID().toString(), "other@example.com",
+                cutoff.minusMinutes(1)));
+    }
+
+    @Test
+    void rebuild_DropsRevocationsNoLongerInTable() {
+        String jti = UUID.randomUUID().toString();
+        tokenRevocationService.revokeToken(jti, LocalDateTime.now().plusMinutes(15));
+        when(tokenRevocationRepository.findByExpiresAtAfter(any())).thenReturn(List.of());
+
+        tokenRevocationService.rebuild();
+
+        verify(tokenRevocationRepository).deleteExpired(any());
+        assertFalse(tokenRevocationService.isRevoked(jti, "user@example.com", LocalDateTime.now()));
+        verify(tokenRevocationRepository, never()).existsByJti(jti);
+    }
+}
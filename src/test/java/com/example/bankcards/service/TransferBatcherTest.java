@@ -0,0 +1,147 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.request.TransferRequest;
+import com.example.bankcards.dto.response.TransferResponse;
+import com.example.bankcards.entity.Role;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.exception.InsufficientFundsException;
+import com.example.bankcards.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class TransferBatcherTest {
+
+    private final CardService cardService = mock(CardService.class);
+    private final UserService userService = mock(UserService.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<Integer> flushedSizes = new CopyOnWriteArrayList<>();
+
+    private TransferBatcher transferBatcher;
+
+    @BeforeEach
+    void setUp() {
+        when(userService.getCurrentUser()).thenReturn(User.builder().id(1L).role(Role.USER).build());
+        doAnswer(this::applyBatch).when(cardService).transferGroup(anyList());
+
+        transferBatcher = new TransferBatcher(cardService, userService, meterRegistry);
+        ReflectionTestUtils.setField(transferBatcher, "enabled", true);
+        ReflectionTestUtils.setField(transferBatcher, "maxBatchSize", 4);
+        ReflectionTestUtils.setField(transferBatcher, "maxWaitMs", 200L);
+        ReflectionTestUtils.setField(transferBatcher, "flushers", 1);
+        ReflectionTestUtils.setField(transferBatcher, "timeoutMs", 5000L);
+        transferBatcher.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        transferBatcher.stop();
+    }
+
+    @Test
+    void transfer_ConcurrentCallers_CommittedTogether() throws Exception {
+        List<Future<TransferResponse>> results = submit(4, new BigDecimal("10.00"));
+
+        for (Future<TransferResponse> result : results) {
+            assertEquals(new BigDecimal("10.00"), result.get(5, TimeUnit.SECONDS).getAmount());
+        }
+        assertEquals(List.of(4), flushedSizes);
+        assertEquals(4, meterRegistry.get("transfers.group-commit.batch.size").summary().totalAmount());
+    }
+
+    @Test
+    void transfer_FailingLeg_OnlyThatCallerFails() throws Exception {
+        List<Future<TransferResponse>> results = submit(3, new BigDecimal("10.00"));
+        results.addAll(submit(1, new BigDecimal("5000.00")));
+
+        for (int i = 0; i < 3; i++) {
+            assertNotNull(results.get(i).get(5, TimeUnit.SECONDS));
+        }
+        ExecutionException ex = assertThrows(ExecutionException.class, () -> results.get(3).get(5, TimeUnit.SECONDS));
+        assertInstanceOf(InsufficientFundsException.class, ex.getCause());
+    }
+
+    @Test
+    void transfer_TransactionFailure_RetriedOneByOne() throws Exception {
+        doThrow(new IllegalStateException("connection reset"))
+                .doAnswer(this::applyBatch)
+                .when(cardService).transferGroup(anyList());
+
+        List<Future<TransferResponse>> results = submit(2, new BigDecimal("10.00"));
+
+        for (Future<TransferResponse> result : results) {
+            assertNotNull(result.get(5, TimeUnit.SECONDS));
+        }
+        verify(cardService, times(3)).transferGroup(anyList());
+    }
+
+    @Test
+    void transfer_NotFlushedInTime_WithdrawnWith503() throws Exception {
+        ReflectionTestUtils.setField(transferBatcher, "maxWaitMs", 0L);
+        ReflectionTestUtils.setField(transferBatcher, "timeoutMs", 300L);
+        CountDownLatch flushing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            flushing.countDown();
+            release.await();
+            return applyBatch(invocation);
+        }).doAnswer(this::applyBatch).when(cardService).transferGroup(anyList());
+
+        List<Future<TransferResponse>> inFlight = submit(1, new BigDecimal("10.00"));
+        assertTrue(flushing.await(5, TimeUnit.SECONDS));
+        List<Future<TransferResponse>> queued = submit(1, new BigDecimal("20.00"));
+
+        ExecutionException ex = assertThrows(ExecutionException.class, () -> queued.get(0).get(5, TimeUnit.SECONDS));
+        assertInstanceOf(ServiceUnavailableException.class, ex.getCause());
+        release.countDown();
+
+        // The transfer already inside a transaction reports its outcome even though it outlived the timeout
+        assertEquals(new BigDecimal("10.00"), inFlight.get(0).get(5, TimeUnit.SECONDS).getAmount());
+        Thread.sleep(100);
+        verify(cardService, times(1)).transferGroup(anyList());
+    }
+
+    @Test
+    void transfer_AfterStop_Rejected() throws InterruptedException {
+        transferBatcher.stop();
+
+        assertThrows(ServiceUnavailableException.class,
+                () -> transferBatcher.transfer(new TransferRequest(1L, 2L, new BigDecimal("10.00"))));
+        verifyNoInteractions(cardService);
+    }
+
+    private Object applyBatch(InvocationOnMock invocation) {
+        List<GroupedTransfer> batch = invocation.getArgument(0);
+        flushedSizes.add(batch.size());
+        batch.forEach(transfer -> {
+            if (transfer.getRequest().getAmount().compareTo(new BigDecimal("1000")) > 0) {
+                transfer.setError(new InsufficientFundsException("Insufficient funds on the source card"));
+            } else {
+                transfer.setResponse(TransferResponse.builder().amount(transfer.getRequest().getAmount()).build());
+            }
+        });
+        return null;
+    }
+
+    private List<Future<TransferResponse>> submit(int count, BigDecimal amount) {
+        ExecutorService callers = Executors.newFixedThreadPool(count);
+        List<Future<TransferResponse>> results = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            results.add(callers.submit(() -> transferBatcher.transfer(new TransferRequest(1L, 2L, amount))));
+        }
+        callers.shutdown();
+        return results;
+    }
+}
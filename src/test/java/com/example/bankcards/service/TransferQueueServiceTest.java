@@ -0,0 +1,224 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.request.TransferRequest;
+import com.example.bankcards.dto.response.PendingTransferResponse;
+import com.example.bankcards.entity.PendingTransfer;
+import com.example.bankcards.entity.PendingTransferStatus;
+import com.example.bankcards.entity.Role;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.exception.BadRequestException;
+import com.example.bankcards.exception.InsufficientFundsException;
+import com.example.bankcards.exception.ResourceNotFoundException;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.PendingTransferRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransferQueueServiceTest {
+
+    @Mock
+    private PendingTransferRepository pendingTransferRepository;
+
+    @Mock
+    private CardRepository cardRepository;
+
+    @Mock
+    private CardService cardService;
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private TransferQueueService transferQueueService;
+
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        testUser = User.builder()
+                .id(1L)
+                .email("test@example.com")
+                .password("encoded_password")
+                .role(Role.USER)
+                .build();
+        ReflectionTestUtils.setField(transferQueueService, "maxAttempts", 3);
+        ReflectionTestUtils.setField(transferQueueService, "retryBackoffMs", 1000L);
+    }
+
+    @Test
+    void submit_SavesPendingTransfer() {
+        when(userService.getCurrentUser()).thenReturn(testUser);
+        when(pendingTransferRepository.save(any(PendingTransfer.class))).thenAnswer(invocation -> {
+            PendingTransfer transfer = invocation.getArgument(0);
+            transfer.setId(10L);
+            return transfer;
+        });
+
+        PendingTransferResponse response = transferQueueService.submit(
+                new TransferRequest(1L, 2L, new BigDecimal("100.00")));
+
+        assertEquals(10L, response.getId());
+        assertEquals(PendingTransferStatus.PENDING, response.getStatus());
+        verifyNoInteractions(cardService);
+    }
+
+    @Test
+    void submit_SameCard_ThrowsException() {
+        assertThrows(BadRequestException.class,
+                () -> transferQueueService.submit(new TransferRequest(1L, 1L, new BigDecimal("100.00"))));
+        verify(pendingTransferRepository, never()).save(any());
+    }
+
+    @Test
+    void processNext_AppliesTransfer() {
+        PendingTransfer transfer = pendingTransfer();
+        runInTransaction();
+        when(pendingTransferRepository.claimNext(any(LocalDateTime.class))).thenReturn(Optional.of(transfer));
+
+        Optional<PendingTransfer> processed = transferQueueService.processNext();
+
+        assertTrue(processed.isPresent());
+        assertEquals(PendingTransferStatus.COMPLETED, transfer.getStatus());
+        assertNotNull(transfer.getProcessedAt());
+        verify(cardService).transferAs(eq(testUser), any(TransferRequest.class));
+    }
+
+    @Test
+    void processNext_BusinessError_MarksFailed() {
+        PendingTransfer transfer = pendingTransfer();
+        runInTransaction();
+        when(pendingTransferRepository.claimNext(any(LocalDateTime.class))).thenReturn(Optional.of(transfer));
+        when(cardService.transferAs(eq(testUser), any(TransferRequest.class)))
+                .thenThrow(new InsufficientFundsException("Insufficient funds on the source card"));
+
+        transferQueueService.processNext();
+
+        assertEquals(PendingTransferStatus.FAILED, transfer.getStatus());
+        assertEquals("Insufficient funds on the source card", transfer.getError());
+        assertEquals(0, transfer.getAttempts());
+    }
+
+    @Test
+    void processNext_UnexpectedError_SchedulesRetry() {
+        PendingTransfer transfer = pendingTransfer();
+        runInTransaction();
+        when(pendingTransferRepository.claimNext(any(LocalDateTime.class))).thenReturn(Optional.of(transfer));
+        when(cardService.transferAs(eq(testUser), any(TransferRequest.class)))
+                .thenThrow(new ObjectOptimisticLockingFailureException("Card", 1L));
+        when(pendingTransferRepository.recordFailedAttempt(eq(10L), eq(0), eq(PendingTransferStatus.PENDING),
+                startsWith("ObjectOptimisticLockingFailureException"), any(LocalDateTime.class), isNull()))
+                .thenReturn(1);
+
+        Optional<PendingTransfer> processed = transferQueueService.processNext();
+
+        assertSame(transfer, processed.orElseThrow());
+        assertEquals(PendingTransferStatus.PENDING, transfer.getStatus());
+        assertEquals(1, transfer.getAttempts());
+        assertTrue(transfer.getNextAttemptAt().isAfter(LocalDateTime.now()));
+    }
+
+    @Test
+    void processNext_UnexpectedErrorAtLastAttempt_MarksFailed() {
+        PendingTransfer transfer = pendingTransfer();
+        transfer.setAttempts(2);
+        runInTransaction();
+        when(pendingTransferRepository.claimNext(any(LocalDateTime.class))).thenReturn(Optional.of(transfer));
+        when(cardService.transferAs(eq(testUser), any(TransferRequest.class)))
+                .thenThrow(new ArithmeticException("Overflow"));
+        when(pendingTransferRepository.recordFailedAttempt(eq(10L), eq(2), eq(PendingTransferStatus.FAILED),
+                eq("ArithmeticException: Overflow"), isNull(), any(LocalDateTime.class)))
+                .thenReturn(1);
+
+        transferQueueService.processNext();
+
+        assertEquals(PendingTransferStatus.FAILED, transfer.getStatus());
+        assertEquals(3, transfer.getAttempts());
+        assertNotNull(transfer.getProcessedAt());
+    }
+
+    @Test
+    void processNext_AttemptAlreadyRecorded_StaysPending() {
+        PendingTransfer transfer = pendingTransfer();
+        transfer.setAttempts(2);
+        runInTransaction();
+        when(pendingTransferRepository.claimNext(any(LocalDateTime.class))).thenReturn(Optional.of(transfer));
+        when(cardService.transferAs(eq(testUser), any(TransferRequest.class)))
+                .thenThrow(new ArithmeticException("Overflow"));
+        when(pendingTransferRepository.recordFailedAttempt(anyLong(), anyInt(), any(), anyString(), any(), any()))
+                .thenReturn(0);
+
+        transferQueueService.processNext();
+
+        assertEquals(PendingTransferStatus.PENDING, transfer.getStatus());
+    }
+
+    @Test
+    void processNext_ClaimFails_Propagates() {
+        runInTransaction();
+        when(pendingTransferRepository.claimNext(any(LocalDateTime.class)))
+                .thenThrow(new IllegalStateException("Connection refused"));
+
+        assertThrows(IllegalStateException.class, () -> transferQueueService.processNext());
+        verify(pendingTransferRepository, never())
+                .recordFailedAttempt(anyLong(), anyInt(), any(), anyString(), any(), any());
+    }
+
+    @Test
+    void processNext_EmptyQueue_ReturnsEmpty() {
+        runInTransaction();
+        when(pendingTransferRepository.claimNext(any(LocalDateTime.class))).thenReturn(Optional.empty());
+
+        assertTrue(transferQueueService.processNext().isEmpty());
+        verifyNoInteractions(cardService);
+    }
+
+    @Test
+    void getStatus_OtherOwner_ThrowsException() {
+        when(userService.getCurrentUser()).thenReturn(testUser);
+        when(pendingTransferRepository.findByIdAndOwnerId(10L, 1L)).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () -> transferQueueService.getStatus(10L));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void runInTransaction() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.getArgument(0, TransactionCallback.class).doInTransaction(null));
+        lenient().doAnswer(invocation -> {
+            invocation.getArgument(0, Consumer.class).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    private PendingTransfer pendingTransfer() {
+        return PendingTransfer.builder()
+                .id(10L)
+                .owner(testUser)
+                .fromCardId(1L)
+                .toCardId(2L)
+                .amount(new BigDecimal("100.00"))
+                .status(PendingTransferStatus.PENDING)
+                .build();
+    }
+}
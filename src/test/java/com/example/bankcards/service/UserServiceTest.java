@@ -33,6 +33,12 @@ class UserServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private CardBalanceSummaryService summaryService;
+
+    @Mock
+    private TokenRevocationService tokenRevocationService;
+
     @Mock
     private SecurityContext securityContext;
 
@@ -110,7 +116,9 @@ class UserServiceTest {
 
         userService.deleteUser(1L);
 
+        verify(summaryService).ownerRemoved(1L);
         verify(userRepository, times(1)).delete(testUser);
+        verify(tokenRevocationService).revokeSubject(testUser.getEmail());
     }
 
     @Test
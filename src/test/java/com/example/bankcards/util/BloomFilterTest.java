@@ -0,0 +1,48 @@
+package com.example.bankcards.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BloomFilterTest {
+
+    @Test
+    void mightContain_AddedKeys_AlwaysFound() throws Exception {
+        BloomFilter filter = BloomFilter.create(10_000, 0.01);
+
+        for (int i = 0; i < 10_000; i++) {
+            filter.put(hash(i));
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain(hash(i)));
+        }
+        // keys that were already false positives do not count as new entries
+        assertEquals(10_000, filter.entries(), 100);
+    }
+
+    @Test
+    void mightContain_FalsePositiveRateNearConfigured() throws Exception {
+        BloomFilter filter = BloomFilter.create(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put(hash(i));
+        }
+
+        int falsePositives = 0;
+        for (int i = 10_000; i < 110_000; i++) {
+            if (filter.mightContain(hash(i))) {
+                falsePositives++;
+            }
+        }
+
+        assertTrue(falsePositives < 1_500, "false positives: " + falsePositives);
+        assertEquals(0.01, filter.expectedFalsePositiveRate(), 0.003);
+    }
+
+    private static byte[] hash(int value) throws Exception {
+        return MessageDigest.getInstance("SHA-256").digest(ByteBuffer.allocate(4).putInt(value).array());
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.bankcards.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CardNumberGeneratorTest {
+
+    private final CardNumberGenerator generator = new CardNumberGenerator();
+
+    @Test
+    void isValid_KnownNumbers() {
+        assertTrue(CardNumberGenerator.isValid("4111111111111111"));
+        assertTrue(CardNumberGenerator.isValid("79927398713"));
+        assertFalse(CardNumberGenerator.isValid("4111111111111112"));
+        assertFalse(CardNumberGenerator.isValid("4111-1111"));
+        assertFalse(CardNumberGenerator.isValid("4"));
+    }
+
+    @Test
+    void checkDigit_MatchesKnownNumber() {
+        byte[] digits = {4, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1};
+
+        assertEquals(1, CardNumberGenerator.checkDigit(digits, digits.length));
+    }
+
+    @Test
+    void next_ManyNumbers_ValidAndDistinct() {
+        Set<String> numbers = new HashSet<>();
+        int[] digitCounts = new int[10];
+
+        for (int i = 0; i < 20_000; i++) {
+            String number = generator.next();
+            assertEquals(16, number.length());
+            assertEquals('4', number.charAt(0));
+            assertTrue(CardNumberGenerator.isValid(number), number);
+            numbers.add(number);
+            for (int j = 1; j < 15; j++) {
+                digitCounts[number.charAt(j) - '0']++;
+            }
+        }
+
+        assertEquals(20_000, numbers.size());
+        for (int count : digitCounts) {
+            assertTrue(Math.abs(count - 28_000) < 1_500, "skewed digit distribution");
+        }
+    }
+}
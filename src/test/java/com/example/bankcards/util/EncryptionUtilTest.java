@@ -4,6 +4,8 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.util.Arrays;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class EncryptionUtilTest {
@@ -14,6 +16,7 @@ class EncryptionUtilTest {
     void setUp() {
         encryptionUtil = new EncryptionUtil();
         ReflectionTestUtils.setField(encryptionUtil, "secretKey", "TestAES256SecretKey32BytesLong!!");
+        ReflectionTestUtils.setField(encryptionUtil, "fingerprintKey", "TestFingerprintHmacKey");
         encryptionUtil.init();
     }
 
@@ -39,6 +42,72 @@ class EncryptionUtilTest {
         assertNotEquals(encrypted1, encrypted2);
     }
 
+    @Test
+    void encrypt_PrefixesActiveKeyId() {
+        assertTrue(encryptionUtil.encrypt("4111111111111111").startsWith("v1:"));
+    }
+
+    @Test
+    void decrypt_LegacyCiphertextWithoutKeyId() {
+        String legacy = encryptionUtil.encrypt("4111111111111111").substring("v1:".length());
+
+        assertEquals("4111111111111111", encryptionUtil.decrypt(legacy));
+        assertFalse(encryptionUtil.isEncryptedWithActiveKey(legacy));
+    }
+
+    @Test
+    void reEncrypt_AfterRotation_UsesNewKeyAndOldStillReadable() {
+        String old = encryptionUtil.encrypt("4111111111111111");
+
+        EncryptionUtil rotated = new EncryptionUtil();
+        ReflectionTestUtils.setField(rotated, "secretKey", "TestAES256SecretKey32BytesLong!!");
+        ReflectionTestUtils.setField(rotated, "fingerprintKey", "TestFingerprintHmacKey");
+        ReflectionTestUtils.setField(rotated, "keys", "v2=AnotherAES256SecretKey32Bytes!!");
+        ReflectionTestUtils.setField(rotated, "activeKeyId", "v2");
+        rotated.init();
+
+        String reEncrypted = rotated.reEncrypt(old);
+
+        assertTrue(reEncrypted.startsWith("v2:"));
+        assertTrue(rotated.isEncryptedWithActiveKey(reEncrypted));
+        assertEquals("4111111111111111", rotated.decrypt(old));
+        assertThrows(RuntimeException.class, () -> encryptionUtil.decrypt(reEncrypted));
+    }
+
+    @Test
+    void init_UnknownActiveKey_Fails() {
+        EncryptionUtil misconfigured = new EncryptionUtil();
+        ReflectionTestUtils.setField(misconfigured, "secretKey", "TestAES256SecretKey32BytesLong!!");
+        ReflectionTestUtils.setField(misconfigured, "fingerprintKey", "TestFingerprintHmacKey");
+        ReflectionTestUtils.setField(misconfigured, "activeKeyId", "v9");
+
+        assertThrows(IllegalStateException.class, misconfigured::init);
+    }
+
+    @Test
+    void init_MissingFingerprintKey_Fails() {
+        EncryptionUtil misconfigured = new EncryptionUtil();
+        ReflectionTestUtils.setField(misconfigured, "secretKey", "TestAES256SecretKey32BytesLong!!");
+
+        assertThrows(IllegalStateException.class, misconfigured::init);
+    }
+
+    @Test
+    void init_FingerprintKeyReusesEncryptionKey_Fails() {
+        EncryptionUtil misconfigured = new EncryptionUtil();
+        ReflectionTestUtils.setField(misconfigured, "secretKey", "TestAES256SecretKey32BytesLong!!");
+        ReflectionTestUtils.setField(misconfigured, "keys", "v2=AnotherAES256SecretKey32Bytes!!");
+        ReflectionTestUtils.setField(misconfigured, "fingerprintKey", "AnotherAES256SecretKey32Bytes!!");
+
+        assertThrows(IllegalStateException.class, misconfigured::init);
+    }
+
+    @Test
+    void fingerprint_DeterministicPerNumber() {
+        assertArrayEquals(encryptionUtil.fingerprint("4111111111111111"), encryptionUtil.fingerprint("4111111111111111"));
+        assertFalse(Arrays.equals(encryptionUtil.fingerprint("4111111111111111"), encryptionUtil.fingerprint("4111111111111129")));
+    }
+
     @Test
     void maskCardNumber_Success() {
         String cardNumber = "4111111111111234";
@@ -0,0 +1,24 @@
+package com.example.bankcards.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogSamplerTest {
+
+    @Test
+    void tryAcquire_SuppressesOverPermitsAndReportsCount() {
+        LogSampler sampler = new LogSampler(2, 2);
+        long now = System.nanoTime();
+
+        assertEquals(0, sampler.tryAcquire(0, now));
+        assertEquals(0, sampler.tryAcquire(0, now));
+        assertEquals(-1, sampler.tryAcquire(0, now));
+        assertEquals(-1, sampler.tryAcquire(0, now));
+        assertEquals(0, sampler.tryAcquire(1, now));
+
+        assertEquals(2, sampler.tryAcquire(0, now + TimeUnit.SECONDS.toNanos(1)));
+    }
+}